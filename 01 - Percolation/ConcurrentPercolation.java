@@ -0,0 +1,189 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Thread-safe, lock-free version of Percolation, same API.
+ * Any number of threads may open sites at the same time,
+ * and isOpen, isFull, percolates can be read at any time without locking.
+ * <p>
+ * The union-find is a concurrent one over an AtomicIntegerArray of parents:
+ * find() does path splitting with CAS (a failed CAS just means someone else already
+ * shortened the path), and union() links one root under the other with a CAS on the
+ * parent of the root, retrying if any of them stopped being a root meanwhile.
+ * Roots are linked by a fixed pseudo-random priority of their index instead of size,
+ * that keeps the trees shallow without having to update sizes atomically.
+ * <p>
+ * The site flags are the same as in Percolation, OPEN on every site and FULL,
+ * CONNECTED_TO_BOTTOM merged at the roots. Flags are OR-ed into the root with CAS,
+ * and the root is checked again afterwards: if it got linked under another root in the
+ * meantime, the flags are pushed further up. A linker always reads the flags of the old
+ * root after its link CAS, so no flag can get lost between the two.
+ * <p>
+ * Readers see at least the effect of every open() that completed before the read started.
+ *
+ * @author Adam Filkor
+ */
+public class ConcurrentPercolation {
+
+    private static final int OPEN = 0b01;
+    private static final int FULL = 0b100; // it's connected to top
+    private static final int CONNECTED_TO_BOTTOM = 0b010;
+    private static final int PERCOLATING = FULL | CONNECTED_TO_BOTTOM;
+
+    private final int n; // n x n grid size, we will use a 2D to 1D map.
+    private final AtomicIntegerArray parent;
+    private final AtomicIntegerArray sites; // flags of the sites
+    private final AtomicInteger numOpenedSites = new AtomicInteger();
+    private volatile boolean perc = false;  // percolation is false initially
+
+    // creates n-by-n grid, with all sites initially blocked
+    public ConcurrentPercolation(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n is less or equal to 0");
+        }
+        this.n = n;
+        sites = new AtomicIntegerArray(n * n);
+        parent = new AtomicIntegerArray(n * n);
+        for (int i = 0; i < n * n; i++) {
+            parent.set(i, i);
+        }
+    }
+
+    // opens the site (row, col) if it is not open already
+    public void open(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n)
+            throw new IllegalArgumentException("arguments out of bound");
+
+        int p = xyTo1D(row, col);
+        // only the thread which flips the OPEN bit goes on
+        if ((sites.getAndUpdate(p, s -> s | OPEN) & OPEN) != 0) {
+            return;
+        }
+        numOpenedSites.incrementAndGet();
+
+        int flags = 0;
+        if (row == 1) flags |= FULL; // if it's the first row, it's full
+        if (row == n) flags |= CONNECTED_TO_BOTTOM;
+        if (flags != 0) addFlags(p, flags);
+
+        // the OPEN bit is already visible, so out of two neighbours opened at the
+        // same time, at least one of them sees the other one and unions them
+        if (row < n && isOpen(p + n)) myUnion(p, p + n);
+        if (row > 1 && isOpen(p - n)) myUnion(p, p - n);
+        if (col < n && isOpen(p + 1)) myUnion(p, p + 1);
+        if (col > 1 && isOpen(p - 1)) myUnion(p, p - 1);
+    }
+
+    private void myUnion(int p, int q) {
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) return;
+
+            // link the lower priority root under the other one
+            if (priority(rootP) > priority(rootQ)) {
+                int t = rootP;
+                rootP = rootQ;
+                rootQ = t;
+            }
+            if (parent.compareAndSet(rootP, rootP, rootQ)) {
+                addFlags(rootQ, sites.get(rootP) & PERCOLATING);
+                return;
+            }
+            // rootP got linked by someone else, try again with the new roots
+        }
+    }
+
+    // OR the flags into the root of p, following the root if it gets linked meanwhile
+    private void addFlags(int p, int flags) {
+        int root = find(p);
+        while (true) {
+            int updated = sites.accumulateAndGet(root, flags, (s, f) -> s | f);
+            if ((updated & PERCOLATING) == PERCOLATING) {
+                perc = true;
+            }
+            int next = parent.get(root);
+            if (next == root) return;
+            root = find(next);
+        }
+    }
+
+    // root of p with path splitting, every node on the path is pointed to its grandparent
+    private int find(int p) {
+        while (true) {
+            int up = parent.get(p);
+            if (up == p) return p;
+            int grandParent = parent.get(up);
+            if (up != grandParent) parent.compareAndSet(p, up, grandParent);
+            p = up;
+        }
+    }
+
+    // fixed pseudo-random linking order, a bijection on the ints so there are no ties
+    private static int priority(int p) {
+        int h = p * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // we use a 2D to 1D map
+    private int xyTo1D(int row, int col) {
+        return n * (row - 1) + (col - 1);
+    }
+
+    private boolean isOpen(int p) {
+        return (sites.get(p) & OPEN) != 0;
+    }
+
+    // is the site (row, col) open?
+    public boolean isOpen(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n)
+            throw new IllegalArgumentException("arguments out of bound");
+        return isOpen(xyTo1D(row, col));
+    }
+
+    // is the site (row, col) full?
+    public boolean isFull(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n)
+            throw new IllegalArgumentException("arguments out of bound");
+        int p = xyTo1D(row, col);
+        return isOpen(p) && (sites.get(find(p)) & FULL) != 0;
+    }
+
+    // returns the number of open sites
+    public int numberOfOpenSites() {
+        return numOpenedSites.get();
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        return perc;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // n threads, every thread opens random sites until it percolates
+        int n = Integer.parseInt(args[0]);
+        int numThreads = args.length >= 2 ? Integer.parseInt(args[1])
+                                          : Runtime.getRuntime().availableProcessors();
+        ConcurrentPercolation perc = new ConcurrentPercolation(n);
+        SplittableRandom master = new SplittableRandom();
+
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            SplittableRandom random = master.split();
+            threads[t] = new Thread(() -> {
+                while (!perc.percolates()) {
+                    perc.open(random.nextInt(n) + 1, random.nextInt(n) + 1);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        StdOut.println("opened: " + perc.numberOfOpenSites());
+        StdOut.println("threshold: " + perc.numberOfOpenSites() / ((double) n * n));
+    }
+}
@@ -0,0 +1,203 @@
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+
+/**
+ * Streaming percolation checker for grids that don't fit in memory.
+ * <p>
+ * Percolation needs the whole grid, n^2 flags plus an n^2 union-find.
+ * Here the grid is fed one row at a time, and the clusters are labelled with the
+ * Hoshen-Kopelman method, keeping only two rows of labels. The union-find is over
+ * at most 2n labels: the labels of the previous row (compacted to 0..n-1 after every
+ * row) and the fresh labels of the current row (n..2n-1). Every cluster label carries
+ * its size and whether it's connected to the top row.
+ * A cluster which doesn't continue in the new row is finished, it's counted and dropped.
+ * The last row added so far is treated as the bottom, so the answers are always
+ * about the grid read so far. Memory is O(n), whatever the number of rows.
+ *
+ * @author Adam Filkor
+ */
+public class HoshenKopelman {
+
+    private static final int BLOCKED = -1;
+
+    private final int n; // row width
+    private int rows = 0;
+
+    private int[] prev; // compact labels of the previous row, or BLOCKED
+    private int[] cur;  // labels of the current row
+    private int live = 0; // compact labels in use, 0..live-1
+
+    private final int[] parent; // union-find over 2n labels
+    private long[] size; // size of the cluster, at the roots
+    private boolean[] top; // is the cluster connected to the top row, at the roots
+    private long[] nextSize; // buffers for the compaction
+    private boolean[] nextTop;
+    private final int[] compact; // root -> new compact label, while compacting
+
+    private long finishedClusters = 0;
+    private long largestFinished = 0;
+
+    public HoshenKopelman(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n is less or equal to 0");
+        }
+        this.n = n;
+        prev = new int[n];
+        cur = new int[n];
+        parent = new int[2 * n];
+        size = new long[2 * n];
+        top = new boolean[2 * n];
+        nextSize = new long[2 * n];
+        nextTop = new boolean[2 * n];
+        compact = new int[2 * n];
+        Arrays.fill(prev, BLOCKED);
+    }
+
+    // add the next row of the grid, open[c] tells whether site c is open
+    public void addRow(boolean[] open) {
+        if (open == null || open.length != n)
+            throw new IllegalArgumentException("row length is not " + n);
+
+        for (int c = 0; c < n; c++) {
+            int label = n + c;
+            parent[label] = label;
+            if (!open[c]) {
+                cur[c] = BLOCKED;
+                continue;
+            }
+            size[label] = 1;
+            top[label] = rows == 0;
+            cur[c] = label;
+            if (prev[c] != BLOCKED) union(label, prev[c]);
+            if (c > 0 && cur[c - 1] != BLOCKED) union(label, cur[c - 1]);
+        }
+
+        // mark the roots of the previous row which continue in this row
+        Arrays.fill(compact, BLOCKED);
+        int next = 0;
+        for (int c = 0; c < n; c++) {
+            if (cur[c] == BLOCKED) continue;
+            int root = find(cur[c]);
+            if (compact[root] == BLOCKED) {
+                compact[root] = next;
+                nextSize[next] = size[root];
+                nextTop[next] = top[root];
+                next++;
+            }
+            cur[c] = compact[root];
+        }
+
+        // the clusters of the previous row that didn't continue are finished
+        for (int label = 0; label < live; label++) {
+            if (parent[label] == label && compact[label] == BLOCKED) {
+                finishedClusters++;
+                largestFinished = Math.max(largestFinished, size[label]);
+            }
+        }
+
+        // swap in the compacted labels
+        long[] tempSize = size;
+        size = nextSize;
+        nextSize = tempSize;
+        boolean[] tempTop = top;
+        top = nextTop;
+        nextTop = tempTop;
+        for (int label = 0; label < next; label++) {
+            parent[label] = label;
+        }
+        live = next;
+        int[] tempRow = prev;
+        prev = cur;
+        cur = tempRow;
+        rows++;
+    }
+
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return;
+        // the bigger cluster keeps its root
+        if (size[rootP] < size[rootQ]) {
+            int t = rootP;
+            rootP = rootQ;
+            rootQ = t;
+        }
+        parent[rootQ] = rootP;
+        size[rootP] += size[rootQ];
+        top[rootP] |= top[rootQ];
+    }
+
+    private int find(int p) {
+        while (parent[p] != p) {
+            parent[p] = parent[parent[p]]; // path halving
+            p = parent[p];
+        }
+        return p;
+    }
+
+    // number of rows read so far
+    public int rows() {
+        return rows;
+    }
+
+    // is there an open path from the top row to the last row read?
+    public boolean percolates() {
+        for (int label = 0; label < live; label++) {
+            if (top[label]) return true;
+        }
+        return false;
+    }
+
+    // number of clusters of open sites in the grid read so far
+    public long numberOfClusters() {
+        return finishedClusters + live;
+    }
+
+    // size of the largest cluster
+    public long largestCluster() {
+        long largest = largestFinished;
+        for (int label = 0; label < live; label++) {
+            largest = Math.max(largest, size[label]);
+        }
+        return largest;
+    }
+
+    // size of the largest cluster connecting the top and the last row, 0 if none
+    public long spanningClusterSize() {
+        long largest = 0;
+        for (int label = 0; label < live; label++) {
+            if (top[label]) largest = Math.max(largest, size[label]);
+        }
+        return largest;
+    }
+
+    public static void main(String[] args) {
+        // one row per line, '1' is an open site anything else is blocked
+        In in = new In(args[0]);
+        HoshenKopelman hk = null;
+        boolean[] open = null;
+        while (in.hasNextLine()) {
+            String line = in.readLine().trim();
+            if (line.isEmpty()) continue;
+            if (hk == null) {
+                hk = new HoshenKopelman(line.length());
+                open = new boolean[line.length()];
+            }
+            for (int c = 0; c < open.length; c++) {
+                open[c] = c < line.length() && line.charAt(c) == '1';
+            }
+            hk.addRow(open);
+        }
+        if (hk == null) {
+            StdOut.println("empty grid");
+            return;
+        }
+        StdOut.println("rows:             " + hk.rows());
+        StdOut.println("percolates:       " + hk.percolates());
+        StdOut.println("clusters:         " + hk.numberOfClusters());
+        StdOut.println("largest cluster:  " + hk.largestCluster());
+        StdOut.println("spanning cluster: " + hk.spanningClusterSize());
+    }
+}
@@ -0,0 +1,191 @@
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Percolation for very large n-by-n grids, same API as Percolation.
+ * <p>
+ * Percolation needs n * n to fit in an int and keeps everything on the heap
+ * (a byte[n * n] plus the two int arrays of WeightedQuickUnionUF).
+ * Here sites are indexed with longs, and every site is a single packed long
+ * living in off-heap direct buffers, split into segments of 2^27 longs (1 GB),
+ * so the heap usage is independent of n.
+ * <p>
+ * Layout of one site (8 bytes):
+ * bits 0-39 parent + 1 (0 means the site is its own root),
+ * bits 40-42 the OPEN, FULL, CONNECTED_TO_BOTTOM flags like in Percolation,
+ * bits 43-48 the rank of the tree (only meaningful at roots).
+ * Direct buffers are zeroed by the JVM, so a fresh grid is already a forest of
+ * blocked singleton roots and there is no n * n initialization pass.
+ * Union by rank with path halving, instead of the plain weighted quick union.
+ * <p>
+ * A 100k x 100k grid needs 80 GB of direct memory (-XX:MaxDirectMemorySize),
+ * but only a few bytes of heap.
+ *
+ * @author Adam Filkor
+ */
+public class LargePercolation {
+
+    private static final long OPEN = 1L << 40;
+    private static final long FULL = 1L << 42; // it's connected to top
+    private static final long CONNECTED_TO_BOTTOM = 1L << 41;
+    private static final long FLAGS = OPEN | FULL | CONNECTED_TO_BOTTOM;
+
+    private static final long PARENT_MASK = (1L << 40) - 1;
+    private static final int RANK_SHIFT = 43;
+    private static final long RANK_MASK = 0x3FL << RANK_SHIFT;
+
+    private static final int MAX_N = (1 << 20) - 1; // parent + 1 up to n * n has to fit in 40 bits
+
+    private static final int SEGMENT_SHIFT = 27; // 2^27 longs per segment
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    private final int n; // n x n grid size, we will use a 2D to 1D map.
+    private final LongBuffer[] segments;
+    private long numOpenedSites = 0;
+    private boolean perc = false;  // percolation is false initially
+
+    // creates n-by-n grid, with all sites initially blocked
+    public LargePercolation(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n is less or equal to 0");
+        }
+        if (n > MAX_N) {
+            throw new IllegalArgumentException("n is larger than " + MAX_N);
+        }
+        this.n = n;
+
+        long total = (long) n * n;
+        int numSegments = (int) ((total + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        segments = new LongBuffer[numSegments];
+        for (int i = 0; i < numSegments; i++) {
+            long length = Math.min(total - ((long) i << SEGMENT_SHIFT), 1L << SEGMENT_SHIFT);
+            segments[i] = ByteBuffer.allocateDirect((int) length * Long.BYTES)
+                                    .order(ByteOrder.nativeOrder())
+                                    .asLongBuffer();
+        }
+    }
+
+    // opens the site (row, col) if it is not open already
+    public void open(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n)
+            throw new IllegalArgumentException("arguments out of bound");
+
+        long p = xyTo1D(row, col);
+        long site = get(p);
+        if ((site & OPEN) != 0) {
+            return;
+        }
+        site |= OPEN;
+        numOpenedSites++;
+
+        if (row == 1) {
+            site |= FULL; // if it's the first row, it's full
+        }
+        if (row == n) {
+            site |= CONNECTED_TO_BOTTOM;
+        }
+        set(p, site);
+
+        if (row < n && isOpen(p + n)) myUnion(p, p + n);
+        if (row > 1 && isOpen(p - n)) myUnion(p, p - n);
+        if (col < n && isOpen(p + 1)) myUnion(p, p + 1);
+        if (col > 1 && isOpen(p - 1)) myUnion(p, p - 1);
+
+        // now if the new root has all the flags, it percolates
+        if ((get(find(p)) & FLAGS) == FLAGS) {
+            perc = true;
+        }
+    }
+
+    private void myUnion(long p, long q) {
+        long rootP = find(p);
+        long rootQ = find(q);
+        if (rootP == rootQ) return;
+
+        long siteP = get(rootP);
+        long siteQ = get(rootQ);
+        long flags = (siteP | siteQ) & FLAGS;
+        long rankP = siteP & RANK_MASK;
+        long rankQ = siteQ & RANK_MASK;
+
+        // link the lower ranked root under the other one, the new root gets all the flags
+        if (rankP < rankQ) {
+            set(rootP, siteP & ~PARENT_MASK | (rootQ + 1));
+            set(rootQ, siteQ | flags);
+        }
+        else {
+            set(rootQ, siteQ & ~PARENT_MASK | (rootP + 1));
+            if (rankP == rankQ) rankP += 1L << RANK_SHIFT;
+            set(rootP, siteP & ~RANK_MASK | rankP | flags);
+        }
+    }
+
+    // root of p, halving the path on the way up
+    private long find(long p) {
+        long parent = get(p) & PARENT_MASK;
+        while (parent != 0) {
+            long grandParent = get(parent - 1) & PARENT_MASK;
+            if (grandParent == 0) return parent - 1;
+            set(p, get(p) & ~PARENT_MASK | grandParent);
+            p = grandParent - 1;
+            parent = get(p) & PARENT_MASK;
+        }
+        return p;
+    }
+
+    private long get(long i) {
+        return segments[(int) (i >>> SEGMENT_SHIFT)].get((int) (i & SEGMENT_MASK));
+    }
+
+    private void set(long i, long value) {
+        segments[(int) (i >>> SEGMENT_SHIFT)].put((int) (i & SEGMENT_MASK), value);
+    }
+
+    // we use a 2D to 1D map, same as in Percolation but with long indices
+    private long xyTo1D(int row, int col) {
+        return (long) n * (row - 1) + (col - 1);
+    }
+
+    private boolean isOpen(long p) {
+        return (get(p) & OPEN) != 0;
+    }
+
+    // is the site (row, col) open?
+    public boolean isOpen(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n)
+            throw new IllegalArgumentException("arguments out of bound");
+        return isOpen(xyTo1D(row, col));
+    }
+
+    // is the site (row, col) full?
+    public boolean isFull(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n)
+            throw new IllegalArgumentException("arguments out of bound");
+        long p = xyTo1D(row, col);
+        return isOpen(p) && (get(find(p)) & FULL) != 0;
+    }
+
+    // returns the number of open sites
+    public long numberOfOpenSites() {
+        return numOpenedSites;
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        return perc;
+    }
+
+    public static void main(String[] args) {
+        int n = Integer.parseInt(args[0]);
+        LargePercolation perc = new LargePercolation(n);
+        while (!perc.percolates()) {
+            perc.open(StdRandom.uniformInt(n) + 1, StdRandom.uniformInt(n) + 1);
+        }
+        StdOut.println("opened: " + perc.numberOfOpenSites());
+        StdOut.println("threshold: " + perc.numberOfOpenSites() / ((double) n * n));
+    }
+}
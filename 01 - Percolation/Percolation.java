@@ -1,4 +1,4 @@
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+import java.util.Arrays;
 
 /**
  * Model a percolation system using an n-by-n grid of sites.
@@ -7,8 +7,19 @@ import edu.princeton.cs.algs4.WeightedQuickUnionUF;
  * a byte array instead. The individual bits in the bytes store the properties
  * of the corresponding sites as flags like OPEN or FULL.
  * It saves some memory, and the problem of 'backwash' is also solved.
- * Using only one WeightedQuickUnion object.
+ * Using only one weighted quick union, inlined here (same as algs4 WeightedQuickUnionUF),
+ * so that reset() can clear the whole state in place with bulk fills, instead of
+ * allocating a new n^2 grid for every trial.
  * Using multiple roots and continuously merging them as we open more sites.
+ * <p>
+ * Cluster statistics (number of clusters, largest cluster, number of full sites) are
+ * kept up to date in open() and myUnion() from the sizes and flags of the roots,
+ * so reading them is O(1).
+ * <p>
+ * Optional hot path counters (find calls and path lengths, unions, rejected opens and
+ * an open() latency histogram), see metrics(). They are switched on with
+ * -Dpercolation.metrics=true. The switch is a static final, so when it's off the JIT
+ * drops the counting code completely and the trials pay nothing for it.
  *
  * @author Adam Filkor
  */
@@ -18,11 +29,18 @@ public class Percolation {
     private static final byte FULL = 0b100; // it's connected to top
     private static final byte CONNECTED_TO_BOTTOM = 0b010;
 
+    static final boolean METRICS = Boolean.getBoolean("percolation.metrics");
+
     private int n; // n x n grid size, we will use a 2D to 1D map.
-    private WeightedQuickUnionUF wQU;
+    private int[] parent; // weighted quick union, parent[i] = parent of i
+    private int[] size;   // size[i] = number of sites in the tree rooted at i
     private int numOpenedSites = 0;
     private boolean perc = false;  // percolation is false initially
     private byte[] sites; // using byte array, setting bits on and off
+    private int numClusters = 0; // clusters of open sites
+    private int largestCluster = 0;
+    private int numFullSites = 0; // sites in clusters connected to the top
+    private final Counters counters = new Counters(); // kept over reset(), for the whole run
 
     // creates n-by-n grid, with all sites initially blocked
     public Percolation(int n) {
@@ -31,7 +49,21 @@ public class Percolation {
         }
         this.n = n;
         sites = new byte[n * n];
-        this.wQU = new WeightedQuickUnionUF(n * n);
+        parent = new int[n * n];
+        size = new int[n * n];
+        reset();
+    }
+
+    // blocks every site again, reusing the arrays
+    public void reset() {
+        Arrays.fill(sites, (byte) 0);
+        Arrays.setAll(parent, i -> i);
+        Arrays.fill(size, 1);
+        numOpenedSites = 0;
+        perc = false;
+        numClusters = 0;
+        largestCluster = 0;
+        numFullSites = 0;
     }
 
     // opens the site (row, col) if it is not open already
@@ -40,13 +72,18 @@ public class Percolation {
             throw new IllegalArgumentException("arguments out of bound");
 
         if (isOpen(row, col)) {
+            if (METRICS) counters.rejectedOpens++;
             return;
         }
+        long start = METRICS ? System.nanoTime() : 0;
         sites[xyTo1D(row, col)] |= OPEN;
         numOpenedSites++;
+        numClusters++; // a new cluster of one site, until it gets merged
+        if (largestCluster == 0) largestCluster = 1;
 
         if (row == 1) {
             sites[xyTo1D(row, col)] |= FULL; // if it's the first row, it's full
+            numFullSites++;
         }
         if (row == n) {
             sites[xyTo1D(row, col)] |= CONNECTED_TO_BOTTOM;
@@ -72,25 +109,54 @@ public class Percolation {
             myUnion(p, q);
         }
         // now if the new root has all the flags, it percolates
-        if (sites[wQU.find(p)] == (OPEN | FULL | CONNECTED_TO_BOTTOM)) {
+        if (sites[find(p)] == (OPEN | FULL | CONNECTED_TO_BOTTOM)) {
             perc = true;
         }
+        if (METRICS) {
+            long elapsed = System.nanoTime() - start;
+            counters.openLatency[64 - Long.numberOfLeadingZeros(elapsed)]++;
+        }
     }
 
     private void myUnion(int p, int q) {
         int rootP, rootQ;
-        rootP = wQU.find(p);
-        rootQ = wQU.find(q);
-        wQU.union(rootP, rootQ); // union the two trees
-        /*
-            Root for the new union can be anything here: rootP or rootQ.
-            After creating a union on two trees, again call find()
-            on one (no matter which) to find the new root:
-        */
-        int rootFinal = wQU.find(rootP);
+        rootP = find(p);
+        rootQ = find(q);
+        if (rootP == rootQ) return;
+
+        // union the two trees, make smaller root point to larger one
+        int rootFinal, rootOther;
+        if (size[rootP] < size[rootQ]) {
+            rootFinal = rootQ;
+            rootOther = rootP;
+        }
+        else {
+            rootFinal = rootP;
+            rootOther = rootQ;
+        }
+        // if only one of them was full, the other one becomes full now
+        if ((sites[rootFinal] & FULL) == 0 && (sites[rootOther] & FULL) != 0)
+            numFullSites += size[rootFinal];
+        else if ((sites[rootFinal] & FULL) != 0 && (sites[rootOther] & FULL) == 0)
+            numFullSites += size[rootOther];
+
+        parent[rootOther] = rootFinal;
+        size[rootFinal] += size[rootOther];
+        if (METRICS) counters.unions++;
         // assign the flags to the new root
-        sites[rootFinal] |= sites[rootP];
-        sites[rootFinal] |= sites[rootQ];
+        sites[rootFinal] |= sites[rootOther];
+
+        numClusters--;
+        if (size[rootFinal] > largestCluster) largestCluster = size[rootFinal];
+    }
+
+    private int find(int p) {
+        if (METRICS) counters.findCalls++;
+        while (p != parent[p]) {
+            p = parent[p];
+            if (METRICS) counters.findPathLength++;
+        }
+        return p;
     }
 
     // we use a 2D to 1D map
@@ -120,20 +186,108 @@ public class Percolation {
         // find the root of the tree p belongs to, and check whether it has the 'FULL' flag
         // if yes, this point p is FULL, too
         int p = xyTo1D(row, col);
-        int rootP = wQU.find(p);
+        int rootP = find(p);
         return (sites[rootP] & FULL) != 0;
     }
 
+    /*
+        Bulk export of the state of every site, into caller supplied bitsets.
+        Site (row, col) is bit xyTo1D(row, col), so bit i is in word i / 64 at i % 64,
+        the arrays need at least (n * n + 63) / 64 words. open may be null.
+
+        Two neighbouring open sites are always in the same tree, so a site has the
+        same FULL state as its open left or upper neighbour, which we have already
+        written out. Only the sites with neither an open left nor an open upper neighbour
+        need a find(), the rest is a linear scan.
+    */
+    public void snapshot(long[] open, long[] full) {
+        int words = (n * n + 63) / 64;
+        if (full == null || full.length < words || (open != null && open.length < words))
+            throw new IllegalArgumentException("bitset is shorter than " + words + " words");
+
+        Arrays.fill(full, 0, words, 0L);
+        if (open != null) Arrays.fill(open, 0, words, 0L);
+
+        for (int i = 0; i < n * n; i++) {
+            if ((sites[i] & OPEN) == 0) continue;
+            if (open != null) open[i >>> 6] |= 1L << i; // shifts are mod 64
+
+            boolean isFull;
+            if (i % n != 0 && (sites[i - 1] & OPEN) != 0) {
+                isFull = isSet(full, i - 1);
+            }
+            else if (i >= n && (sites[i - n] & OPEN) != 0) {
+                isFull = isSet(full, i - n);
+            }
+            else {
+                isFull = (sites[find(i)] & FULL) != 0;
+            }
+            if (isFull) full[i >>> 6] |= 1L << i;
+        }
+    }
+
+    private static boolean isSet(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
     // returns the number of open sites
     public int numberOfOpenSites() {
         return numOpenedSites;
     }
 
+    // returns the number of clusters of open sites
+    public int numberOfClusters() {
+        return numClusters;
+    }
+
+    // returns the number of sites in the largest cluster
+    public int largestClusterSize() {
+        return largestCluster;
+    }
+
+    // returns the number of full sites, the total size of the clusters connected to the top
+    public int numberOfFullSites() {
+        return numFullSites;
+    }
+
+    // hot path counters, all zero unless METRICS is on
+    public PercolationMetrics metrics() {
+        return counters;
+    }
+
     // does the system percolate?
     public boolean percolates() {
         return perc;
     }
 
+    private static class Counters implements PercolationMetrics {
+        private long findCalls;
+        private long findPathLength;
+        private long unions;
+        private long rejectedOpens;
+        private final long[] openLatency = new long[65];
+
+        public long findCalls() {
+            return findCalls;
+        }
+
+        public long findPathLength() {
+            return findPathLength;
+        }
+
+        public long unions() {
+            return unions;
+        }
+
+        public long rejectedOpens() {
+            return rejectedOpens;
+        }
+
+        public long[] openLatencyHistogram() {
+            return openLatency.clone();
+        }
+    }
+
     public static void main(String[] args) {
 
     }
@@ -0,0 +1,146 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.SplittableRandom;
+
+/**
+ * Percolation probability P(p) and cluster metrics as functions of the site vacancy
+ * probability p, for any number of p values, from a single batch of trials.
+ * <p>
+ * Every trial is a Newman-Ziff single pass (see PercolationStats): all the sites are
+ * opened in a random order, and after every open we record whether it percolates,
+ * the size of the largest cluster, the number of full sites and the number of clusters
+ * (see Percolation). Averaged over the trials, this gives the microcanonical curves,
+ * like Q(k), the fraction of trials which percolate after exactly k open sites.
+ * The canonical curve is the binomial convolution
+ * P(p) = sum over k of C(N, k) p^k (1 - p)^(N - k) Q(k), where N = n^2,
+ * and the same for the cluster metrics.
+ * The binomial weights are computed outwards from the mode with the ratio of
+ * neighbouring terms, and cut off once they get negligible.
+ *
+ * @author Adam Filkor
+ */
+public class PercolationCurve {
+
+    private static final double EPSILON = 1e-15; // cut off for the binomial weights
+
+    private final int sites; // N = n^2
+
+    // the microcanonical curves, averages over the trials after k opens
+    private final double[] percolating; // fraction of trials percolating
+    private final double[] largest;     // largest cluster size / N
+    private final double[] full;        // full sites / N
+    private final double[] clusters;    // number of clusters / N
+
+    // perform independent single pass trials on an n-by-n grid, reproducible by seed
+    public PercolationCurve(int n, int trials, long seed) {
+        if (n <= 0 || trials <= 0) {
+            throw new IllegalArgumentException("n is less or equal to 0");
+        }
+        this.sites = n * n;
+
+        percolating = new double[sites + 1];
+        largest = new double[sites + 1];
+        full = new double[sites + 1];
+        clusters = new double[sites + 1];
+        Percolation perc = new Percolation(n);
+        int[] order = new int[sites];
+        SplittableRandom master = new SplittableRandom(seed);
+        for (int i = 0; i < trials; i++) {
+            trial(perc, n, order, master.split());
+        }
+        for (int k = 0; k <= sites; k++) {
+            percolating[k] /= trials;
+            largest[k] /= (double) trials * sites;
+            full[k] /= (double) trials * sites;
+            clusters[k] /= (double) trials * sites;
+        }
+    }
+
+    // open every site in a random order, and add up the state after every open
+    private void trial(Percolation perc, int n, int[] order, SplittableRandom random) {
+        PercolationStats.openInRandomOrder(perc, n, order, random, k -> {
+            if (perc.percolates()) percolating[k]++;
+            largest[k] += perc.largestClusterSize();
+            full[k] += perc.numberOfFullSites();
+            clusters[k] += perc.numberOfClusters();
+            return true;
+        });
+    }
+
+    // fraction of the trials percolating with exactly k open sites
+    public double microcanonical(int k) {
+        if (k < 0 || k > sites) throw new IllegalArgumentException("k out of bound");
+        return percolating[k];
+    }
+
+    // probability that the system percolates, when every site is open with probability p
+    public double percolationProbability(double p) {
+        return convolve(percolating, p);
+    }
+
+    // expected size of the largest cluster, as a fraction of the sites
+    public double largestClusterFraction(double p) {
+        return convolve(largest, p);
+    }
+
+    // expected number of full sites, as a fraction of the sites
+    public double fullSiteFraction(double p) {
+        return convolve(full, p);
+    }
+
+    // expected number of clusters per site
+    public double clusterDensity(double p) {
+        return convolve(clusters, p);
+    }
+
+    // the canonical value of the microcanonical curve q at p
+    private double convolve(double[] q, double p) {
+        if (!(p >= 0.0 && p <= 1.0)) throw new IllegalArgumentException("p is not in [0, 1]");
+        if (p == 0.0) return q[0];
+        if (p == 1.0) return q[sites];
+
+        double odds = p / (1.0 - p);
+        int mode = (int) Math.min(sites, Math.floor((sites + 1) * p));
+
+        // relative weights, the weight of the mode is 1
+        double weight = 1.0;
+        double total = 1.0;
+        double sum = q[mode];
+        for (int k = mode; k < sites && weight > EPSILON * total; k++) {
+            weight *= (sites - k) / (k + 1.0) * odds;
+            total += weight;
+            sum += weight * q[k + 1];
+        }
+        weight = 1.0;
+        for (int k = mode; k > 0 && weight > EPSILON * total; k--) {
+            weight *= k / (sites - k + 1.0) / odds;
+            total += weight;
+            sum += weight * q[k - 1];
+        }
+        return sum / total;
+    }
+
+    // the canonical curve for every given p
+    public double[] percolationProbabilities(double[] ps) {
+        double[] curve = new double[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            curve[i] = percolationProbability(ps[i]);
+        }
+        return curve;
+    }
+
+    public static void main(String[] args) {
+        // n trials seed points
+        int n = Integer.parseInt(args[0]);
+        int trials = Integer.parseInt(args[1]);
+        long seed = Long.parseLong(args[2]);
+        int points = args.length >= 4 ? Integer.parseInt(args[3]) : 21;
+
+        PercolationCurve curve = new PercolationCurve(n, trials, seed);
+        for (int i = 0; i < points; i++) {
+            double p = points == 1 ? 0.5 : i / (double) (points - 1);
+            StdOut.printf("%.4f %.6f %.6f %.6f %.6f%n", p, curve.percolationProbability(p),
+                          curve.largestClusterFraction(p), curve.fullSiteFraction(p), curve.clusterDensity(p));
+        }
+    }
+}
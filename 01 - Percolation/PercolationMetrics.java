@@ -0,0 +1,23 @@
+/**
+ * Hot path counters of a Percolation, see Percolation.METRICS.
+ * All of them are zero when the metrics are disabled.
+ *
+ * @author Adam Filkor
+ */
+public interface PercolationMetrics {
+
+    // number of find() calls in the union-find
+    long findCalls();
+
+    // total number of parent links followed by the find() calls
+    long findPathLength();
+
+    // number of unions which actually merged two trees
+    long unions();
+
+    // number of open() calls on sites that were open already
+    long rejectedOpens();
+
+    // open() latencies, element i counts the opens that took [2^(i-1), 2^i) nanoseconds
+    long[] openLatencyHistogram();
+}
@@ -1,8 +1,33 @@
 import edu.princeton.cs.algs4.StdRandom;
 import edu.princeton.cs.algs4.StdStats;
 
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
 /**
  * Write a program to estimate the value of the percolation threshold via Monte Carlo simulation.
+ * <p>
+ * Besides the original sequential constructor, there is a parallel one, which spreads
+ * the trials over a fixed thread pool. Every trial gets its own SplittableRandom, split
+ * off from a master seed in trial order, so the results only depend on the seed and
+ * not on the number of threads or on which thread ran which trial.
+ * <p>
+ * The parallel constructor can also run Newman-Ziff style single pass trials:
+ * the sites are opened in the order of one Fisher-Yates permutation of the n^2 site
+ * indices, which is built lazily, one swap per opened site, so there are no rejected
+ * draws of already open sites and no per trial matrix. The permutation buffer is
+ * allocated once per worker and reset to the identity before every trial, so the
+ * outcome of a trial still only depends on its own random stream.
+ * <p>
+ * Every worker (and the sequential constructor) uses a single Percolation instance,
+ * reset() between the trials, so there is no per trial allocation.
+ * With -Dpercolation.metrics=true the hot path counters of these instances are
+ * summed up in metrics(), and main() prints them at the end of the run.
  *
  * @author Adam Filkor
  */
@@ -12,6 +37,7 @@ public class PercolationStats {
     private int T; // trials
     private double mean;
     private double stddev = Double.NaN;
+    private final TotalMetrics metrics = new TotalMetrics();
 
     // perform independent trials on an n-by-n grid
     public PercolationStats(int n, int trials) {
@@ -22,34 +48,146 @@ public class PercolationStats {
         this.T = trials;
         int randX, randY;
         int opened = 0;
-        int[][] openedSites = new int[n + 1][n + 1]; // not ideal, but whatever
 
         double[] tresholds = new double[T];
+        Percolation perc = new Percolation(n);
 
         // for trials
         for (int i = 0; i < T; i++) {
-            Percolation perc = new Percolation(n);
+            perc.reset();
 
             while (!perc.percolates()) {
                 randX = StdRandom.uniformInt(n) + 1;
                 randY = StdRandom.uniformInt(n) + 1;
 
-                if (openedSites[randX][randY] == 0) {
+                if (!perc.isOpen(randX, randY)) {
                     perc.open(randX, randY);
-                    openedSites[randX][randY] = 1;
                     opened++;
                 }
                 // StdDraw.pause(400);
             }
             tresholds[i] = opened / ((double) n * n);
-            openedSites = new int[n + 1][n + 1];  // HAD  TO RESET
             opened = 0;
         }
+        metrics.add(perc.metrics());
+
+        this.mean = StdStats.mean(tresholds);
+        if (T != 1) this.stddev = StdStats.stddev(tresholds);
+    }
+
+    // perform independent trials on an n-by-n grid, in parallel, reproducible by seed
+    public PercolationStats(int n, int trials, long seed, int threads) {
+        this(n, trials, seed, threads, false);
+    }
+
+    // same as above, newmanZiff selects the single pass permutation trials
+    public PercolationStats(int n, int trials, long seed, int threads, boolean newmanZiff) {
+        if (n <= 0 || trials <= 0) {
+            throw new IllegalArgumentException("n is less or equal to 0");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads is less or equal to 0");
+        }
+
+        this.T = trials;
+        double[] tresholds = new double[T];
+
+        // split the streams up front, in trial order, this is what makes it deterministic
+        SplittableRandom master = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[T];
+        for (int i = 0; i < T; i++) {
+            randoms[i] = master.split();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            // workers keep pulling the next trial index until all of them are done
+            AtomicInteger next = new AtomicInteger();
+            Future<?>[] workers = new Future<?>[threads];
+            Percolation[] instances = new Percolation[threads];
+            for (int w = 0; w < threads; w++) {
+                int worker = w;
+                workers[w] = pool.submit(() -> {
+                    Percolation perc = new Percolation(n);
+                    instances[worker] = perc;
+                    int[] order = newmanZiff ? new int[n * n] : null;
+                    for (int i = next.getAndIncrement(); i < T; i = next.getAndIncrement()) {
+                        tresholds[i] = newmanZiff ? singlePassTrial(perc, n, order, randoms[i])
+                                                  : trial(perc, n, randoms[i]);
+                    }
+                });
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            for (Percolation perc : instances) {
+                metrics.add(perc.metrics()); // Future.get() makes the counters visible
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while running trials", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("trial failed", e.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+        }
 
         this.mean = StdStats.mean(tresholds);
         if (T != 1) this.stddev = StdStats.stddev(tresholds);
     }
 
+    // one trial: open random blocked sites until it percolates, returns the threshold
+    private static double trial(Percolation perc, int n, SplittableRandom random) {
+        perc.reset();
+        int row, col;
+        while (!perc.percolates()) {
+            row = random.nextInt(n) + 1;
+            col = random.nextInt(n) + 1;
+            perc.open(row, col); // no-op if it's open already
+        }
+        return perc.numberOfOpenSites() / ((double) n * n);
+    }
+
+    // one Newman-Ziff trial, returns the threshold
+    private static double singlePassTrial(Percolation perc, int n, int[] order,
+                                          SplittableRandom random) {
+        return percolationStep(perc, n, order, random) / ((double) n * n);
+    }
+
+    // the exact open count where the system starts to percolate
+    private static int percolationStep(Percolation perc, int n, int[] order, SplittableRandom random) {
+        return openInRandomOrder(perc, n, order, random, k -> !perc.percolates());
+    }
+
+    /*
+        Reset perc and open its sites in the order of a Fisher-Yates permutation of the
+        site indices, built in order[] one swap per opened site, so step i picks the
+        i-th site to open among the ones not opened yet. After every open step is called
+        with the number of open sites, and it stops when that returns false, or when every
+        site is open. Returns the number of open sites.
+    */
+    static int openInRandomOrder(Percolation perc, int n, int[] order, SplittableRandom random,
+                                 IntPredicate step) {
+        perc.reset();
+        int sites = order.length;
+        for (int i = 0; i < sites; i++) {
+            order[i] = i;
+        }
+        int i = 0;
+        while (i < sites) {
+            int j = i + random.nextInt(sites - i);
+            int site = order[j];
+            order[j] = order[i];
+            order[i] = site;
+            perc.open(site / n + 1, site % n + 1);
+            if (!step.test(++i)) break;
+        }
+        return i;
+    }
+
     // sample mean of percolation threshold
     public double mean() {
         return mean;
@@ -70,14 +208,84 @@ public class PercolationStats {
         return mean + 1.96 * stddev() / Math.sqrt(T);
     }
 
+    // hot path counters summed over all the Percolation instances of the run
+    public PercolationMetrics metrics() {
+        return metrics;
+    }
+
+    private static class TotalMetrics implements PercolationMetrics {
+        private long findCalls;
+        private long findPathLength;
+        private long unions;
+        private long rejectedOpens;
+        private final long[] openLatency = new long[65];
+
+        private void add(PercolationMetrics m) {
+            findCalls += m.findCalls();
+            findPathLength += m.findPathLength();
+            unions += m.unions();
+            rejectedOpens += m.rejectedOpens();
+            long[] histogram = m.openLatencyHistogram();
+            for (int i = 0; i < histogram.length; i++) {
+                openLatency[i] += histogram[i];
+            }
+        }
+
+        public long findCalls() {
+            return findCalls;
+        }
+
+        public long findPathLength() {
+            return findPathLength;
+        }
+
+        public long unions() {
+            return unions;
+        }
+
+        public long rejectedOpens() {
+            return rejectedOpens;
+        }
+
+        public long[] openLatencyHistogram() {
+            return openLatency.clone();
+        }
+    }
+
     public static void main(String[] args) {
-        PercolationStats PS = new PercolationStats(Integer.parseInt(args[0]),
-                                                   Integer.parseInt(args[1]));
+        PercolationStats PS;
+        if (args.length >= 3) {
+            // n trials seed [threads] [nz]
+            int threads = args.length >= 4 ? Integer.parseInt(args[3])
+                                           : Runtime.getRuntime().availableProcessors();
+            boolean newmanZiff = args.length >= 5 && args[4].equals("nz");
+            PS = new PercolationStats(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+                                      Long.parseLong(args[2]), threads, newmanZiff);
+        }
+        else {
+            PS = new PercolationStats(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        }
 
         System.out.println("mean                     = " + PS.mean());
         System.out.println("stddev                   = " + PS.stddev());
         System.out.println(
                 "95% confidence interval  = [" + PS.confidenceLo() + ", " + PS.confidenceHi()
                         + "]");
+
+        if (Percolation.METRICS) {
+            PercolationMetrics m = PS.metrics();
+            System.out.println("find calls               = " + m.findCalls());
+            System.out.println("mean find path length    = "
+                                       + m.findPathLength() / (double) Math.max(1, m.findCalls()));
+            System.out.println("unions                   = " + m.unions());
+            System.out.println("rejected opens           = " + m.rejectedOpens());
+            long[] histogram = m.openLatencyHistogram();
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] == 0) continue;
+                long from = i == 0 ? 0 : 1L << (i - 1);
+                System.out.println("open latency [" + from + ", " + (1L << i) + ") ns = "
+                                           + histogram[i]);
+            }
+        }
     }
 }
@@ -3,9 +3,17 @@ import edu.princeton.cs.algs4.StdOut;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Generic data type for a deque.
+ * <p>
+ * It has a sized spliterator, so stream() and parallelStream() can split it.
+ * A split walks to the middle node of its part (we know the size, so it's balanced),
+ * that's linear in the part, but it's done only until the parts get small.
  *
  * @author Adam Filkor
  */
@@ -102,6 +110,62 @@ public class Deque<Item> implements Iterable<Item> {
         return new ListIterator();
     }
 
+    // sized, splittable spliterator over items in order from front to back
+    public Spliterator<Item> spliterator() {
+        return new ListSpliterator(first, size);
+    }
+
+    // sequential stream of the items, from front to back
+    public Stream<Item> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    // parallel stream of the items
+    public Stream<Item> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    private class ListSpliterator implements Spliterator<Item> {
+        private static final int MIN_SPLIT = 1024; // don't walk lists for tiny parts
+
+        private Node current;
+        private int remaining; // number of nodes of this part, from current
+
+        private ListSpliterator(Node current, int remaining) {
+            this.current = current;
+            this.remaining = remaining;
+        }
+
+        public boolean tryAdvance(Consumer<? super Item> action) {
+            if (action == null) throw new NullPointerException();
+            if (remaining == 0) return false;
+            action.accept(current.item);
+            current = current.next;
+            remaining--;
+            return true;
+        }
+
+        public Spliterator<Item> trySplit() {
+            if (remaining < MIN_SPLIT) return null;
+            int half = remaining / 2;
+            Spliterator<Item> prefix = new ListSpliterator(current, half);
+            for (int i = 0; i < half; i++) {
+                current = current.next;
+            }
+            remaining -= half;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return remaining;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+                    | Spliterator.NONNULL;
+        }
+    }
+
     private class ListIterator implements Iterator<Item> {
         private Node current = first;
 
@@ -0,0 +1,139 @@
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Randomized queue of int values, same API and same algorithm as RandomizedQueue,
+ * but backed by an int[] instead of an array of boxed Integers.
+ * <p>
+ * 4 bytes per item instead of a reference plus a 16 byte Integer object,
+ * and the items are next to each other in memory, so sampling an id doesn't
+ * chase a pointer. The array doubles when it's full and halves when it's
+ * one-quarter full, dequeue swaps the last item into the removed one's place.
+ * The iterator walks a RandomOrder like the one of RandomizedQueue, and
+ * returns the values unboxed with nextInt().
+ *
+ * @author Adam Filkor
+ */
+public class IntRandomizedQueue implements Iterable<Integer> {
+
+    // initial capacity of underlying resizing array
+    private static final int INIT_CAPACITY = 8;
+
+    private int[] q;
+    private int N = 0; // the size
+    private int modCount = 0; // enqueue and dequeue calls, for the fail-fast iterators
+
+    // construct an empty randomized queue
+    public IntRandomizedQueue() {
+        q = new int[INIT_CAPACITY];
+    }
+
+    // is the randomized queue empty?
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    // return the number of items on the randomized queue
+    public int size() {
+        return N;
+    }
+
+    // resize the underlying array holding the elements
+    private void resize(int capacity) {
+        assert capacity >= N;
+        int[] copy = new int[capacity];
+        System.arraycopy(q, 0, copy, 0, N);
+        q = copy;
+    }
+
+    // add the item
+    public void enqueue(int item) {
+        if (N == q.length) resize(2 * q.length);
+        q[N++] = item;
+        modCount++;
+    }
+
+    // remove and return a random item
+    public int dequeue() {
+        if (isEmpty()) throw new NoSuchElementException("Stack underflow");
+        int rand = StdRandom.uniformInt(N);
+        int item = q[rand];
+
+        // swap the last item into the dequeued item's place
+        q[rand] = q[N - 1];
+        N--;
+        modCount++;
+
+        // shrink size of array if necessary
+        if (N > 0 && N == q.length / 4) resize(q.length / 2);
+        return item;
+    }
+
+    // return a random item (but do not remove it)
+    public int sample() {
+        if (isEmpty()) throw new NoSuchElementException("Stack underflow");
+        return q[StdRandom.uniformInt(N)];
+    }
+
+    // return an independent iterator over items in random order
+    public PrimitiveIterator.OfInt iterator() {
+        return new RandomArrayIterator();
+    }
+
+    private class RandomArrayIterator implements PrimitiveIterator.OfInt {
+        private final RandomOrder order = new RandomOrder(N); // walks the first N elements
+        private final int expectedModCount = modCount;
+        private int i = 0;
+
+        public boolean hasNext() {
+            return i < order.size;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException("Remove is not supported here.");
+        }
+
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            return q[order.index(i++)];
+        }
+    }
+
+    // unit testing, same as in RandomizedQueue, with the ints of standard input
+    public static void main(String[] args) {
+
+        int n = 5;
+        IntRandomizedQueue queue = new IntRandomizedQueue();
+        for (int i = 0; i < n; i++)
+            queue.enqueue(i);
+        for (PrimitiveIterator.OfInt a = queue.iterator(); a.hasNext(); ) {
+            int x = a.nextInt();
+            for (PrimitiveIterator.OfInt b = queue.iterator(); b.hasNext(); )
+                StdOut.print(x + "-" + b.nextInt() + " ");
+            StdOut.println();
+        }
+
+        IntRandomizedQueue rQueue = new IntRandomizedQueue();
+        while (!StdIn.isEmpty()) {
+            rQueue.enqueue(StdIn.readInt());
+        }
+        if (rQueue.isEmpty()) return;
+
+        StdOut.println(rQueue.dequeue());
+
+        StdOut.println("sample: " + rQueue.sample());
+        StdOut.println("empty: " + rQueue.isEmpty());
+        StdOut.println("size: " + rQueue.size());
+
+        StdOut.println("--------");
+        for (int x : rQueue) {
+            StdOut.println(x);
+        }
+    }
+}
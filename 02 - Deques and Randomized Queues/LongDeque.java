@@ -0,0 +1,125 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Deque of primitive longs, the same circular resizing array as ResizingArrayDeque,
+ * but over a long[], so there is no boxing and no Integer/Long object per item.
+ *
+ * @author Adam Filkor
+ */
+public class LongDeque implements Iterable<Long> {
+
+    // initial capacity of underlying resizing array, power of two
+    private static final int INIT_CAPACITY = 8;
+
+    private long[] q;
+    private int first = 0; // index of the first item
+    private int size = 0;
+
+    // construct an empty deque
+    public LongDeque() {
+        q = new long[INIT_CAPACITY];
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        return size;
+    }
+
+    // resize the underlying array, unwrapping the items to start at index 0
+    private void resize(int capacity) {
+        assert capacity >= size;
+        long[] copy = new long[capacity];
+        int head = Math.min(size, q.length - first);
+        System.arraycopy(q, first, copy, 0, head);
+        System.arraycopy(q, 0, copy, head, size - head);
+        q = copy;
+        first = 0;
+    }
+
+    // add the item to the front
+    public void addFirst(long item) {
+        if (size == q.length) resize(2 * q.length);
+        first = (first - 1) & (q.length - 1);
+        q[first] = item;
+        size++;
+    }
+
+    // add the item to the back
+    public void addLast(long item) {
+        if (size == q.length) resize(2 * q.length);
+        q[(first + size) & (q.length - 1)] = item;
+        size++;
+    }
+
+    // remove and return the item from the front
+    public long removeFirst() {
+        if (size == 0) throw new NoSuchElementException("Queue is empty can't remove from it");
+        long item = q[first];
+        first = (first + 1) & (q.length - 1);
+        size--;
+        if (size > 0 && size == q.length / 4 && q.length > INIT_CAPACITY) resize(q.length / 2);
+        return item;
+    }
+
+    // remove and return the item from the back
+    public long removeLast() {
+        if (size == 0) throw new NoSuchElementException("Queue is empty can't remove from it");
+        long item = q[(first + size - 1) & (q.length - 1)];
+        size--;
+        if (size > 0 && size == q.length / 4 && q.length > INIT_CAPACITY) resize(q.length / 2);
+        return item;
+    }
+
+    // return an iterator over items in order from front to back, nextLong() doesn't box
+    public PrimitiveIterator.OfLong iterator() {
+        return new ArrayIterator();
+    }
+
+    private class ArrayIterator implements PrimitiveIterator.OfLong {
+        private int i = 0;
+
+        public boolean hasNext() {
+            return i < size;
+        }
+
+        public long nextLong() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return q[(first + i++) & (q.length - 1)];
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException("Remove is not supported here.");
+        }
+    }
+
+    // unit testing
+    public static void main(String[] args) {
+        LongDeque deque = new LongDeque();
+        for (int i = 0; i < 20; i++) {
+            deque.addFirst(i);
+            deque.addLast(-i);
+        }
+        StdOut.println("size: " + deque.size());
+        StdOut.println("remove first: " + deque.removeFirst());
+        StdOut.println("remove last: " + deque.removeLast());
+
+        PrimitiveIterator.OfLong it = deque.iterator();
+        while (it.hasNext()) {
+            StdOut.print(it.nextLong() + " ");
+        }
+        StdOut.println();
+
+        while (!deque.isEmpty()) {
+            deque.removeLast();
+        }
+        StdOut.println("isEmpty: " + deque.isEmpty());
+    }
+}
@@ -0,0 +1,139 @@
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Randomized queue of long values, same API and same algorithm as RandomizedQueue,
+ * but backed by a long[] instead of an array of boxed Longs.
+ * <p>
+ * 8 bytes per item instead of a reference plus a 16 byte Long object,
+ * and the items are next to each other in memory, so sampling an id doesn't
+ * chase a pointer. The array doubles when it's full and halves when it's
+ * one-quarter full, dequeue swaps the last item into the removed one's place.
+ * The iterator walks a RandomOrder like the one of RandomizedQueue, and
+ * returns the values unboxed with nextLong().
+ *
+ * @author Adam Filkor
+ */
+public class LongRandomizedQueue implements Iterable<Long> {
+
+    // initial capacity of underlying resizing array
+    private static final int INIT_CAPACITY = 8;
+
+    private long[] q;
+    private int N = 0; // the size
+    private int modCount = 0; // enqueue and dequeue calls, for the fail-fast iterators
+
+    // construct an empty randomized queue
+    public LongRandomizedQueue() {
+        q = new long[INIT_CAPACITY];
+    }
+
+    // is the randomized queue empty?
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    // return the number of items on the randomized queue
+    public int size() {
+        return N;
+    }
+
+    // resize the underlying array holding the elements
+    private void resize(int capacity) {
+        assert capacity >= N;
+        long[] copy = new long[capacity];
+        System.arraycopy(q, 0, copy, 0, N);
+        q = copy;
+    }
+
+    // add the item
+    public void enqueue(long item) {
+        if (N == q.length) resize(2 * q.length);
+        q[N++] = item;
+        modCount++;
+    }
+
+    // remove and return a random item
+    public long dequeue() {
+        if (isEmpty()) throw new NoSuchElementException("Stack underflow");
+        int rand = StdRandom.uniformInt(N);
+        long item = q[rand];
+
+        // swap the last item into the dequeued item's place
+        q[rand] = q[N - 1];
+        N--;
+        modCount++;
+
+        // shrink size of array if necessary
+        if (N > 0 && N == q.length / 4) resize(q.length / 2);
+        return item;
+    }
+
+    // return a random item (but do not remove it)
+    public long sample() {
+        if (isEmpty()) throw new NoSuchElementException("Stack underflow");
+        return q[StdRandom.uniformInt(N)];
+    }
+
+    // return an independent iterator over items in random order
+    public PrimitiveIterator.OfLong iterator() {
+        return new RandomArrayIterator();
+    }
+
+    private class RandomArrayIterator implements PrimitiveIterator.OfLong {
+        private final RandomOrder order = new RandomOrder(N); // walks the first N elements
+        private final int expectedModCount = modCount;
+        private int i = 0;
+
+        public boolean hasNext() {
+            return i < order.size;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException("Remove is not supported here.");
+        }
+
+        public long nextLong() {
+            if (!hasNext()) throw new NoSuchElementException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            return q[order.index(i++)];
+        }
+    }
+
+    // unit testing, same as in RandomizedQueue, with the longs of standard input
+    public static void main(String[] args) {
+
+        int n = 5;
+        LongRandomizedQueue queue = new LongRandomizedQueue();
+        for (int i = 0; i < n; i++)
+            queue.enqueue(i);
+        for (PrimitiveIterator.OfLong a = queue.iterator(); a.hasNext(); ) {
+            long x = a.nextLong();
+            for (PrimitiveIterator.OfLong b = queue.iterator(); b.hasNext(); )
+                StdOut.print(x + "-" + b.nextLong() + " ");
+            StdOut.println();
+        }
+
+        LongRandomizedQueue rQueue = new LongRandomizedQueue();
+        while (!StdIn.isEmpty()) {
+            rQueue.enqueue(StdIn.readLong());
+        }
+        if (rQueue.isEmpty()) return;
+
+        StdOut.println(rQueue.dequeue());
+
+        StdOut.println("sample: " + rQueue.sample());
+        StdOut.println("empty: " + rQueue.isEmpty());
+        StdOut.println("size: " + rQueue.size());
+
+        StdOut.println("--------");
+        for (long x : rQueue) {
+            StdOut.println(x);
+        }
+    }
+}
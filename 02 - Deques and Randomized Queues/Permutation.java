@@ -2,15 +2,56 @@ import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 /**
  * Takes an integer k as a command-line argument;
  * reads a sequence of strings from standard input using StdIn.readString(); and
  * prints exactly k of them, uniformly at random.
+ * <p>
+ * With a second argument "skip" it uses skip based reservoir sampling instead
+ * (Li's Algorithm L): rather than flipping a coin for every token after the first k,
+ * it draws how many tokens to skip until the next replacement, from a geometric
+ * distribution. That's O(k log(n / k)) random numbers instead of n, and the skipped
+ * tokens are stepped over by a TokenScanner in the byte buffer, no String is created.
+ * <p>
+ * "parallel file [threads]" samples the tokens of a file on all cores: the file is split
+ * into byte ranges, every thread reads its range through memory mapped windows into
+ * its own reservoir (Algorithm L again), then the reservoirs are merged. The merge
+ * draws the k items one by one, from reservoir i with probability proportional to the
+ * number of not yet drawn tokens of range i, so the result is still uniform.
+ * <p>
+ * "external [megabytes]" is for when k is about n and the tokens don't fit in memory:
+ * an external shuffle. Every token is written to one of RUNS temporary run files,
+ * chosen uniformly at random. Then the runs are shuffled one by one in memory with a
+ * RandomizedQueue and printed one after the other. A random scatter followed by
+ * uniform shuffles of the runs is a uniform permutation. A run larger than the memory
+ * budget (16 MB by default) is scattered again. The first k tokens are printed.
  *
  * @author Adam Filkor
  */
 
 public class Permutation {
+
+    private static final int RUNS = 64; // run files per scatter in the external shuffle
+
     public static void main(String[] args) {
         /**
          *  You may assume that 0 ≤ k ≤ n, where n is the number of string on standard input. Note that you are not given n.
@@ -20,6 +61,27 @@ public class Permutation {
         int k = Integer.parseInt(args[0]);
         if (k <= 0) return;
 
+        if (args.length > 1 && args[1].equals("skip")) {
+            for (String s : skipSample(k, new TokenScanner(System.in)).items) {
+                StdOut.println(s);
+            }
+            return;
+        }
+        if (args.length > 2 && args[1].equals("parallel")) {
+            int threads = args.length > 3 ? Integer.parseInt(args[3])
+                                           : Runtime.getRuntime().availableProcessors();
+            for (String s : parallelSample(k, args[2], threads)) {
+                StdOut.println(s);
+            }
+            return;
+        }
+        if (args.length > 1 && args[1].equals("external")) {
+            long megabytes = args.length > 2 ? Long.parseLong(args[2]) : 16;
+            if (megabytes <= 0) throw new IllegalArgumentException("memory budget is not positive");
+            externalShuffle(k, new TokenScanner(System.in), megabytes << 20);
+            return;
+        }
+
         /*
 
         Firstly create a RandomizedQueue object, execute enqueue() k times to put the first k elements of the string sequence into RandomizedQueue,
@@ -55,4 +117,199 @@ public class Permutation {
             StdOut.println(s);
         }
     }
+
+    // uniform sample of the tokens of an input, and the number of tokens it was taken from
+    private static class Reservoir {
+        private final RandomizedQueue<String> items = new RandomizedQueue<String>();
+        private long seen = 0;
+    }
+
+    // reservoir of k tokens, uniformly at random, with Algorithm L
+    private static Reservoir skipSample(int k, TokenScanner in) {
+        Reservoir reservoir = new Reservoir();
+        RandomizedQueue<String> rQueue = reservoir.items;
+        for (int i = 0; i < k; i++) {
+            String token = in.next();
+            if (token == null) return reservoir; // less than k tokens
+            rQueue.enqueue(token);
+            reservoir.seen++;
+        }
+
+        /*
+            w is distributed like the largest of k uniform random numbers, the 'key'
+            of the reservoir. The number of tokens until one beats it is geometric.
+        */
+        double w = Math.exp(Math.log(randomOpen()) / k);
+        while (true) {
+            double skip = Math.floor(Math.log(randomOpen()) / Math.log(1 - w));
+            long skipped = in.skip((long) Math.min(skip, Long.MAX_VALUE));
+            reservoir.seen += skipped;
+            if (skipped < skip) break;
+            String token = in.next();
+            if (token == null) break;
+            reservoir.seen++;
+            rQueue.dequeue(); // a random one goes out
+            rQueue.enqueue(token);
+            w *= Math.exp(Math.log(randomOpen()) / k);
+        }
+        return reservoir;
+    }
+
+    // k tokens of the file uniformly at random, sampling byte ranges of it in parallel
+    private static RandomizedQueue<String> parallelSample(int k, String file, int threads) {
+        if (threads <= 0) throw new IllegalArgumentException("threads is less or equal to 0");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Future<Reservoir>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                long from = size * i / threads;
+                long to = size * (i + 1) / threads;
+                futures.add(pool.submit(() -> skipSample(k, new TokenScanner(channel, from, to))));
+            }
+            Reservoir[] reservoirs = new Reservoir[threads];
+            for (int i = 0; i < threads; i++) {
+                reservoirs[i] = futures.get(i).get();
+            }
+            return merge(k, reservoirs);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("could not read " + file, e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while sampling", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("sampling failed", e.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /*
+        Weighted merge: like drawing k tokens one by one without replacement from all
+        the tokens, the next one is from range i with probability (remaining tokens of i) /
+        (remaining tokens), and then it's a random one of reservoir i. Reservoir i holds
+        min(k, seen) tokens, so it never runs out before its range does.
+    */
+    private static RandomizedQueue<String> merge(int k, Reservoir[] reservoirs) {
+        long remaining = 0;
+        for (Reservoir reservoir : reservoirs) {
+            remaining += reservoir.seen;
+        }
+        RandomizedQueue<String> sample = new RandomizedQueue<String>();
+        while (sample.size() < k && remaining > 0) {
+            long r = StdRandom.uniformLong(remaining);
+            int i = 0;
+            while (r >= reservoirs[i].seen) {
+                r -= reservoirs[i].seen;
+                i++;
+            }
+            sample.enqueue(reservoirs[i].items.dequeue());
+            reservoirs[i].seen--;
+            remaining--;
+        }
+        return sample;
+    }
+
+    // print the first k tokens of a uniform random permutation of the input
+    private static void externalShuffle(int k, TokenScanner in, long maxRunBytes) {
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("permutation");
+            long remaining = k;
+            for (Path run : scatter(in, dir)) {
+                remaining -= shuffleRun(run, dir, maxRunBytes, remaining);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            if (dir != null) deleteRuns(dir);
+        }
+    }
+
+    // delete the temporary directory, with the runs left behind when the shuffle failed
+    private static void deleteRuns(Path dir) {
+        File[] runs = dir.toFile().listFiles();
+        if (runs != null) {
+            for (File run : runs) {
+                run.delete();
+            }
+        }
+        dir.toFile().delete();
+    }
+
+    // write every token to a uniformly random run file
+    private static Path[] scatter(TokenScanner in, Path dir) throws IOException {
+        Path[] runs = new Path[RUNS];
+        OutputStream[] out = new OutputStream[RUNS];
+        try {
+            for (int i = 0; i < RUNS; i++) {
+                runs[i] = Files.createTempFile(dir, "run", ".txt");
+                out[i] = new BufferedOutputStream(Files.newOutputStream(runs[i]));
+            }
+            String token;
+            while ((token = in.next()) != null) {
+                OutputStream run = out[StdRandom.uniformInt(RUNS)];
+                run.write(token.getBytes(StandardCharsets.UTF_8));
+                run.write('\n');
+            }
+        }
+        finally {
+            for (OutputStream run : out) {
+                if (run != null) run.close();
+            }
+        }
+        return runs;
+    }
+
+    // shuffle a run and print at most limit of its tokens, returns the number printed
+    private static long shuffleRun(Path run, Path dir, long maxRunBytes, long limit)
+            throws IOException {
+        long printed = 0;
+        if (limit > 0 && Files.size(run) > maxRunBytes && hasTwoTokens(run)) {
+            // too big, scatter it once more
+            Path[] runs;
+            try (InputStream in = Files.newInputStream(run)) {
+                runs = scatter(new TokenScanner(in), dir);
+            }
+            Files.delete(run);
+            for (Path r : runs) {
+                printed += shuffleRun(r, dir, maxRunBytes, limit - printed);
+            }
+            return printed;
+        }
+        if (limit > 0) {
+            RandomizedQueue<String> rQueue = new RandomizedQueue<String>();
+            try (InputStream in = Files.newInputStream(run)) {
+                TokenScanner scanner = new TokenScanner(in);
+                String token;
+                while ((token = scanner.next()) != null) {
+                    rQueue.enqueue(token);
+                }
+            }
+            while (!rQueue.isEmpty() && printed < limit) {
+                StdOut.println(rQueue.dequeue());
+                printed++;
+            }
+        }
+        Files.delete(run);
+        return printed;
+    }
+
+    // a single huge token can't be split any further
+    private static boolean hasTwoTokens(Path run) throws IOException {
+        try (InputStream in = Files.newInputStream(run)) {
+            return new TokenScanner(in).skip(2) == 2;
+        }
+    }
+
+    // uniform random number in (0, 1], it goes into log()
+    private static double randomOpen() {
+        return 1.0 - StdRandom.uniformDouble();
+    }
 }
@@ -0,0 +1,61 @@
+import edu.princeton.cs.algs4.StdRandom;
+
+/**
+ * Keyed pseudo-random permutation of 0..size-1, index(i) is the i-th element,
+ * the iteration order of the randomized queues.
+ * <p>
+ * A Feistel network over 2 * halfBits bits is a bijection, so walking the cycle
+ * from i until it gets back inside 0..size-1 is a bijection on 0..size-1 too.
+ * O(1) memory, a fresh random key for every instance.
+ *
+ * @author Adam Filkor
+ */
+class RandomOrder {
+    private static final int ROUNDS = 8;
+
+    final int size;
+    private final int halfBits;
+    private final int halfMask;
+    private final int[] keys = new int[ROUNDS];
+
+    RandomOrder(int size) {
+        this.size = size;
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(size - 1, 1));
+        halfBits = (bits + 1) / 2;
+        halfMask = (1 << halfBits) - 1;
+        for (int r = 0; r < ROUNDS; r++) {
+            keys[r] = (int) StdRandom.uniformLong(1L << 32);
+        }
+    }
+
+    int index(int i) {
+        // over 2^30 the network is 32 bits wide, so its values are compared unsigned
+        int index = permute(i);
+        while (Integer.compareUnsigned(index, size) >= 0) {
+            index = permute(index);
+        }
+        return index;
+    }
+
+    // Feistel network over 2 * halfBits bits
+    private int permute(int x) {
+        int left = x >>> halfBits;
+        int right = x & halfMask;
+        for (int r = 0; r < ROUNDS; r++) {
+            int t = left ^ (mix(right ^ keys[r]) & halfMask);
+            left = right;
+            right = t;
+        }
+        return (left << halfBits) | right;
+    }
+
+    // murmur3 finalizer, the round function
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -2,13 +2,28 @@ import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
 
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A randomized queue is similar to a stack or queue, except that the item removed is
  * chosen uniformly at random among items in the data structure.
  * Using a dynamic array here, resizing it based on required capacity. (grow, shrink)
+ * <p>
+ * The iterators don't copy and shuffle the array. Each one walks the indices 0..N-1
+ * in the order of a keyed pseudo-random permutation: an 8 round Feistel network over
+ * the smallest even number of bits covering N, cycle walking the values that fall
+ * outside of 0..N-1 (less than 4 steps on average). That's O(1) time and memory to
+ * create an iterator and expected O(1) per next(), with a fresh random key per
+ * iterator. The orders are pseudo-random rather than uniform over all N!
+ * permutations. An iterator is a view, it fails fast if the queue is modified.
+ * The spliterator walks such an order too, and splits it by position ranges, so
+ * stream() and parallelStream() can use every core.
  *
  * @author Adam Filkor
  */
@@ -20,6 +35,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 
     private Item[] q;
     private int N = 0; // the size
+    private int modCount = 0; // enqueue and dequeue calls, for the fail-fast iterators
 
 
     // construct an empty randomized queue
@@ -58,6 +74,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 
         if (N == q.length) resize(2 * q.length); // https://algs4.cs.princeton.edu/13stacks/ResizingArrayStack.java.html
         q[N++] = item;
+        modCount++;
     }
 
     // remove and return a random item
@@ -71,6 +88,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         q[rand] = lastItem;
         q[N - 1] = null; // make the last item null
         N--; // decrease size
+        modCount++;
 
         // shrink size of array if necessary
         if (N > 0 && N == q.length / 4) resize(q.length / 2);
@@ -85,35 +103,84 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
     }
 
 
+    /*
+        Batch versions of sample() and dequeue(), for k distinct random items at once.
+        One partial Fisher-Yates pass: the i-th pick is swapped to position N - 1 - i,
+        so the k picked items end up in the tail of q, in random order.
+        This reorders the array, so like dequeue() it invalidates the iterators.
+    */
+
+    // write k distinct random items into out[0..k-1] (but do not remove them)
+    public void sampleMany(int k, Item[] out) {
+        pickToTail(k, out);
+        for (int i = 0; i < k; i++) {
+            out[i] = q[N - 1 - i];
+        }
+    }
+
+    // remove k distinct random items and write them into out[0..k-1]
+    public void dequeueMany(int k, Item[] out) {
+        pickToTail(k, out);
+        for (int i = 0; i < k; i++) {
+            out[i] = q[N - 1 - i];
+            q[N - 1 - i] = null;
+        }
+        N -= k;
+
+        // shrink size of array if necessary, at most once
+        int capacity = q.length;
+        while (capacity > INIT_CAPACITY && N <= capacity / 4) capacity /= 2;
+        if (capacity != q.length) resize(capacity);
+    }
+
+    private void pickToTail(int k, Item[] out) {
+        if (k < 0 || k > N) throw new IllegalArgumentException("k is not in [0, size]");
+        if (out == null || out.length < k)
+            throw new IllegalArgumentException("out is shorter than k");
+        for (int i = 0; i < k; i++) {
+            int last = N - 1 - i;
+            int rand = StdRandom.uniformInt(last + 1);
+            Item item = q[rand];
+            q[rand] = q[last];
+            q[last] = item;
+        }
+        modCount++;
+    }
+
     // return an independent iterator over items in random order (!!)
     public Iterator<Item> iterator() {
         return new RandomArrayIterator();
     }
 
+    // sized, splittable spliterator over items in random order
+    public Spliterator<Item> spliterator() {
+        return new RandomArraySpliterator(new RandomOrder(N), 0, N);
+    }
+
+    // sequential stream of the items, in random order
+    public Stream<Item> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    // parallel stream of the items, in random order
+    public Stream<Item> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     // this is a custom class, it can have any name.
     private class RandomArrayIterator implements Iterator<Item> {
-        int i;
-        private Item[] copy;
-
-        public RandomArrayIterator() {
-            /*
-                two iterators should return the same set
-                of values but in a different order
-                (nested iterators or parallel iterators)
-            */
-            copy = (Item[]) new Object[N];
-            int j = 0;
-            for (int k = 0; k < N; k++) {
-                if (q[k] == null) continue; // remove nulls
-                copy[j++] = q[k];
-            }
-
-            StdRandom.shuffle(copy);
-            i = 0;
-        }
+        /*
+            two iterators should return the same set
+            of values but in a different order
+            (nested iterators or parallel iterators)
+            so every iterator gets its own random order.
+        */
+        private final RandomOrder order = new RandomOrder(N); // walks the first N elements
+        private final int expectedModCount = modCount;
+        private int i = 0;
 
         public boolean hasNext() {
-            return i < N; // slides use current!= null;
+            return i < order.size; // slides use current!= null;
         }
 
         public void remove() {
@@ -122,7 +189,58 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 
         public Item next() {
             if (!hasNext()) throw new NoSuchElementException();
-            return copy[i++];
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            return q[order.index(i++)];
+        }
+    }
+
+    /*
+        Spliterator over the same kind of random order, it covers the positions
+        lo..hi-1 of the order, and splits by halving that range, like an array.
+        So the parallel streams get balanced parts and still see the items in random order.
+    */
+    private class RandomArraySpliterator implements Spliterator<Item> {
+        private final RandomOrder order;
+        private final int expectedModCount = modCount;
+        private int lo;
+        private final int hi;
+
+        private RandomArraySpliterator(RandomOrder order, int lo, int hi) {
+            this.order = order;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        public boolean tryAdvance(Consumer<? super Item> action) {
+            if (action == null) throw new NullPointerException();
+            if (lo >= hi) return false;
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            action.accept(q[order.index(lo++)]);
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super Item> action) {
+            if (action == null) throw new NullPointerException();
+            for (; lo < hi; lo++) {
+                action.accept(q[order.index(lo)]);
+            }
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        }
+
+        public Spliterator<Item> trySplit() {
+            int mid = (lo + hi) >>> 1;
+            if (mid <= lo) return null;
+            Spliterator<Item> prefix = new RandomArraySpliterator(order, lo, mid);
+            lo = mid;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return hi - lo;
+        }
+
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
         }
     }
 
@@ -159,6 +277,13 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         StdOut.println("empty: " + rQueue.isEmpty());
         StdOut.println("size: " + rQueue.size());
 
+        String[] batch = new String[Math.min(2, rQueue.size())];
+        rQueue.sampleMany(batch.length, batch);
+        StdOut.println("sampleMany: " + String.join(" ", batch));
+        rQueue.dequeueMany(batch.length, batch);
+        StdOut.println("dequeueMany: " + String.join(" ", batch));
+        StdOut.println("size: " + rQueue.size());
+
         StdOut.println("--------");
         for (String s : rQueue) {
             StdOut.println(s);
@@ -0,0 +1,152 @@
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Generic deque, same API as Deque, but backed by a circular resizing array
+ * instead of a doubly linked list.
+ * <p>
+ * No Node allocation per item (item, next, before and the object header are about
+ * 32 bytes each), and iterating is a linear scan of the array. The operations are
+ * constant amortized time instead of constant worst case time:
+ * the array doubles when it's full and halves when it's one-quarter full.
+ * The capacity is always a power of two, so wrapping around is a bit mask.
+ *
+ * @author Adam Filkor
+ */
+public class ResizingArrayDeque<Item> implements Iterable<Item> {
+
+    // initial capacity of underlying resizing array, power of two
+    private static final int INIT_CAPACITY = 8;
+
+    private Item[] q;
+    private int first = 0; // index of the first item
+    private int size = 0;
+
+    // construct an empty deque
+    public ResizingArrayDeque() {
+        q = (Item[]) new Object[INIT_CAPACITY];
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        return size;
+    }
+
+    // resize the underlying array, unwrapping the items to start at index 0
+    private void resize(int capacity) {
+        assert capacity >= size;
+        Item[] copy = (Item[]) new Object[capacity];
+        for (int i = 0; i < size; i++) {
+            copy[i] = q[(first + i) & (q.length - 1)];
+        }
+        q = copy;
+        first = 0;
+    }
+
+    // add the item to the front
+    public void addFirst(Item item) {
+        if (item == null) throw new IllegalArgumentException("null argument addFirst");
+        if (size == q.length) resize(2 * q.length);
+        first = (first - 1) & (q.length - 1);
+        q[first] = item;
+        size++;
+    }
+
+    // add the item to the back
+    public void addLast(Item item) {
+        if (item == null) throw new IllegalArgumentException("null argument addLast");
+        if (size == q.length) resize(2 * q.length);
+        q[(first + size) & (q.length - 1)] = item;
+        size++;
+    }
+
+    // remove and return the item from the front
+    public Item removeFirst() {
+        if (size == 0) throw new NoSuchElementException("Queue is empty can't remove from it");
+        Item item = q[first];
+        q[first] = null; // to avoid loitering
+        first = (first + 1) & (q.length - 1);
+        size--;
+        if (size > 0 && size == q.length / 4 && q.length > INIT_CAPACITY) resize(q.length / 2);
+        return item;
+    }
+
+    // remove and return the item from the back
+    public Item removeLast() {
+        if (size == 0) throw new NoSuchElementException("Queue is empty can't remove from it");
+        int last = (first + size - 1) & (q.length - 1);
+        Item item = q[last];
+        q[last] = null; // to avoid loitering
+        size--;
+        if (size > 0 && size == q.length / 4 && q.length > INIT_CAPACITY) resize(q.length / 2);
+        return item;
+    }
+
+    // return an iterator over items in order from front to back
+    public Iterator<Item> iterator() {
+        return new ArrayIterator();
+    }
+
+    private class ArrayIterator implements Iterator<Item> {
+        private int i = 0;
+
+        public boolean hasNext() {
+            return i < size;
+        }
+
+        public Item next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return q[(first + i++) & (q.length - 1)];
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException("Remove is not supported here.");
+        }
+    }
+
+    // unit testing, same as in Deque
+    public static void main(String[] args) {
+
+        ResizingArrayDeque<String> deque = new ResizingArrayDeque<>();
+
+        String str;
+        while (!StdIn.isEmpty()) {
+            str = StdIn.readString();
+            deque.addFirst(str);
+        }
+
+        StdOut.println("size: " + deque.size());
+        StdOut.println("isEmpty: " + deque.isEmpty());
+        deque.addLast("last");
+
+        int size = deque.size();
+        for (int i = 0; i < size; i++) {
+            str = deque.removeLast();
+            StdOut.println(str);
+        }
+
+        StdOut.println("------");
+        for (String s : deque) {
+            StdOut.println(s);
+        }
+
+        deque.addLast("a");
+        deque.addLast("b");
+        deque.addLast("c");
+        StdOut.println("remove first: " + deque.removeFirst());
+        StdOut.println("remove last: " + deque.removeLast());
+        deque.addLast("cat");
+
+        for (String s : deque) {
+            StdOut.println(s);
+        }
+    }
+}
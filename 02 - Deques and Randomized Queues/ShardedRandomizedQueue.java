@@ -0,0 +1,192 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe randomized queue for many producers and consumers.
+ * <p>
+ * Instead of one array behind one lock, the items are striped over shards, one per core
+ * by default. Every shard is a resizing array like in RandomizedQueue, with its own lock.
+ * A producer always enqueues into the shard of its thread, so producers rarely meet.
+ * A consumer picks a shard with probability proportional to its size, and then
+ * a uniformly random item of that shard, so each item is picked with probability
+ * 1 / N, the same as with a single array. The shard sizes are read without locking,
+ * so under concurrent updates this is uniform up to the items enqueued or dequeued
+ * during the pick; when the queue is quiescent it's exact.
+ * There is no shared counter either, size() is the sum of the shard sizes, so it's
+ * a snapshot too. Only when that snapshot says empty does dequeue() or sample()
+ * lock every shard (in index order, so they can't deadlock) and count again,
+ * so they throw only if the queue really was empty at that moment.
+ *
+ * @author Adam Filkor
+ */
+public class ShardedRandomizedQueue<Item> {
+
+    // initial capacity of the arrays of the shards
+    private static final int INIT_CAPACITY = 8;
+
+    private final Shard[] shards;
+
+    private static final class Shard {
+        private Object[] q = new Object[INIT_CAPACITY];
+        private volatile int n = 0; // read without the lock when picking a shard
+
+        // resize the underlying array holding the elements
+        private void resize(int capacity) {
+            Object[] copy = new Object[capacity];
+            System.arraycopy(q, 0, copy, 0, n);
+            q = copy;
+        }
+    }
+
+    // construct an empty randomized queue, with a shard per core
+    public ShardedRandomizedQueue() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // construct an empty randomized queue, with the given number of shards
+    public ShardedRandomizedQueue(int numShards) {
+        if (numShards <= 0)
+            throw new IllegalArgumentException("number of shards is less or equal to 0");
+        shards = new Shard[numShards];
+        for (int i = 0; i < numShards; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    // is the randomized queue empty?
+    public boolean isEmpty() {
+        for (Shard shard : shards) {
+            if (shard.n > 0) return false;
+        }
+        return true;
+    }
+
+    // return the number of items on the randomized queue, the sum of the shard sizes
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.n;
+        }
+        return size;
+    }
+
+    // add the item, into the shard of the current thread
+    public void enqueue(Item item) {
+        if (item == null) throw new IllegalArgumentException("null argument enqueue");
+        Shard shard = shards[(int) (Thread.currentThread().getId() % shards.length)];
+        synchronized (shard) {
+            if (shard.n == shard.q.length) shard.resize(2 * shard.q.length);
+            shard.q[shard.n] = item;
+            shard.n++;
+        }
+    }
+
+    // remove and return a random item
+    public Item dequeue() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Shard shard = pickShard(random);
+            synchronized (shard) {
+                int n = shard.n;
+                if (n == 0) continue; // emptied meanwhile, pick again
+                int rand = random.nextInt(n);
+                Item item = (Item) shard.q[rand];
+
+                // swap the last item into the dequeued item's place, like in RandomizedQueue
+                shard.q[rand] = shard.q[n - 1];
+                shard.q[n - 1] = null;
+                shard.n = n - 1;
+
+                // shrink size of array if necessary
+                if (n - 1 > 0 && n - 1 == shard.q.length / 4) shard.resize(shard.q.length / 2);
+                return item;
+            }
+        }
+    }
+
+    // return a random item (but do not remove it)
+    public Item sample() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Shard shard = pickShard(random);
+            synchronized (shard) {
+                if (shard.n == 0) continue;
+                return (Item) shard.q[random.nextInt(shard.n)];
+            }
+        }
+    }
+
+    // pick a shard with probability proportional to its size
+    private Shard pickShard(ThreadLocalRandom random) {
+        while (true) {
+            // the snapshot may miss an item that moved between the shards we read,
+            // so an empty one is confirmed under all the locks before we give up
+            int total = size();
+            if (total == 0) {
+                if (lockedSize(0) == 0) throw new NoSuchElementException("Queue underflow");
+                continue;
+            }
+            int r = random.nextInt(total);
+            for (Shard shard : shards) {
+                r -= shard.n;
+                if (r < 0) return shard;
+            }
+            // the sizes changed while we were walking them, try again
+        }
+    }
+
+    // exact size, holding the locks of the shards i.. while counting, taken in index order
+    private int lockedSize(int i) {
+        if (i == shards.length) return 0;
+        synchronized (shards[i]) {
+            return shards[i].n + lockedSize(i + 1);
+        }
+    }
+
+    // unit testing: producers and consumers on the same queue, every item comes out once
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int numThreads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        ShardedRandomizedQueue<Integer> queue = new ShardedRandomizedQueue<>();
+        Thread[] producers = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            int from = t;
+            producers[t] = new Thread(() -> {
+                for (int i = from; i < n; i += numThreads) {
+                    queue.enqueue(i);
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        StdOut.println("size: " + queue.size());
+        StdOut.println("sample: " + queue.sample());
+
+        boolean[] seen = new boolean[n];
+        AtomicInteger duplicates = new AtomicInteger();
+        Thread[] consumers = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            consumers[t] = new Thread(() -> {
+                for (int i = 0; i < n / numThreads; i++) {
+                    int item = queue.dequeue();
+                    synchronized (seen) {
+                        if (seen[item]) duplicates.incrementAndGet();
+                        seen[item] = true;
+                    }
+                }
+            });
+            consumers[t].start();
+        }
+        for (Thread consumer : consumers) {
+            consumer.join();
+        }
+        StdOut.println("left: " + queue.size() + ", duplicates: " + duplicates.get());
+        StdOut.println("empty: " + queue.isEmpty());
+    }
+}
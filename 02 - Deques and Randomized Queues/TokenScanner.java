@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads whitespace separated tokens straight from the bytes of an input stream,
+ * or of a file through memory mapped windows.
+ * <p>
+ * StdIn.readString() builds a String for every token. When most of the tokens are
+ * thrown away anyway (like in Permutation), skip() steps over them in the byte buffer
+ * without creating anything. Only the tokens which are really needed are decoded,
+ * as UTF-8. Whitespace is the ASCII one (space, tab, newline, carriage return,
+ * form feed, vertical tab), the bytes of multi-byte UTF-8 characters are never ASCII,
+ * so splitting on bytes is safe.
+ * <p>
+ * A file scanner can be restricted to the tokens starting in a byte range, so that
+ * a file can be split between threads: a token belongs to the range of its first
+ * byte, it's read to its end even if that's past the range.
+ *
+ * @author Adam Filkor
+ */
+public class TokenScanner {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long WINDOW_SIZE = 1L << 28; // mapped window of a file, 256 MB
+
+    private final InputStream in; // either the stream
+    private final FileChannel channel; // or the file
+    private ByteBuffer buffer;
+    private long bufferStart = 0; // offset of the start of the buffer in the input
+    private long end = Long.MAX_VALUE; // only the tokens starting before this offset
+    private byte[] token = new byte[64]; // bytes of the current token, grows if needed
+
+    public TokenScanner(InputStream in) {
+        if (in == null) throw new IllegalArgumentException("null input stream");
+        this.in = in;
+        this.channel = null;
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.limit(0);
+    }
+
+    // the tokens of the file which start in the byte range [from, to)
+    public TokenScanner(FileChannel channel, long from, long to) {
+        if (channel == null) throw new IllegalArgumentException("null channel");
+        if (from < 0 || to < from) throw new IllegalArgumentException("invalid range");
+        this.in = null;
+        this.channel = channel;
+        this.end = to;
+        buffer = ByteBuffer.allocate(0);
+        bufferStart = from;
+
+        // a token cut by the start of the range belongs to the previous range
+        if (from > 0 && !isWhitespace(previousByte(from))) {
+            skipTokenBytes();
+        }
+    }
+
+    // is there one more token?
+    public boolean hasNext() {
+        return skipWhitespace();
+    }
+
+    // the next token, or null if there are no more tokens
+    public String next() {
+        if (!skipWhitespace()) return null;
+        int length = 0;
+        while (true) {
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get(buffer.position());
+                if (isWhitespace(b)) break;
+                if (length == token.length) token = Arrays.copyOf(token, 2 * length);
+                token[length++] = b;
+                buffer.position(buffer.position() + 1);
+            }
+            if (buffer.hasRemaining() || !fill()) break;
+        }
+        return new String(token, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // skip the next count tokens without decoding them, returns the number of tokens skipped
+    public long skip(long count) {
+        long skipped = 0;
+        while (skipped < count && skipWhitespace()) {
+            skipTokenBytes();
+            skipped++;
+        }
+        return skipped;
+    }
+
+    private void skipTokenBytes() {
+        while (true) {
+            while (buffer.hasRemaining() && !isWhitespace(buffer.get(buffer.position()))) {
+                buffer.position(buffer.position() + 1);
+            }
+            if (buffer.hasRemaining() || !fill()) return;
+        }
+    }
+
+    // move to the first byte of the next token, false at the end of the input or range
+    private boolean skipWhitespace() {
+        while (true) {
+            while (buffer.hasRemaining() && isWhitespace(buffer.get(buffer.position()))) {
+                buffer.position(buffer.position() + 1);
+            }
+            if (buffer.hasRemaining()) return bufferStart + buffer.position() < end;
+            if (!fill()) return false;
+        }
+    }
+
+    // next chunk of the input into the buffer, false if there is no more
+    private boolean fill() {
+        try {
+            long next = bufferStart + buffer.position();
+            if (in != null) {
+                int read = in.read(buffer.array(), 0, buffer.capacity());
+                if (read <= 0) return false;
+                buffer.position(0);
+                buffer.limit(read);
+            }
+            else {
+                long size = channel.size();
+                if (next >= size) return false;
+                long length = Math.min(WINDOW_SIZE, size - next);
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, next, length);
+            }
+            bufferStart = next;
+            return true;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte previousByte(long offset) {
+        try {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, offset - 1);
+            return one.get(0);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+}
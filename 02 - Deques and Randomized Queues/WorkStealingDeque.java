@@ -0,0 +1,153 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent work-stealing deque (Chase-Lev), for task queues of fork/join style schedulers.
+ * <p>
+ * One owner thread works at the back, like addLast() and removeLast() of Deque:
+ * push() and pop() need no lock and no CAS, except when popping the very last item.
+ * Any other thread may steal() from the front, it's one CAS on top, so thieves only
+ * contend with each other (and with the owner for the last item).
+ * The items live in a circular array, indexed by the ever growing top and bottom
+ * counters, which the owner doubles when it's full. The old array is left intact,
+ * so a thief still reading it gets the same item.
+ * <p>
+ * A stolen item stays referenced by its slot until the owner pushes over it, or
+ * the array is replaced on resize, so at most capacity items are retained.
+ * The thief can't clear the slot: once it won top, the owner may already be reusing
+ * the slot for a new item, possibly the same object, that a late write (or CAS) of
+ * null would lose. The owner clears the slots it pops.
+ * <p>
+ * Compared to Deque, there is no addFirst (only thieves work at the front),
+ * and pop() and steal() return null instead of throwing when there is nothing to take.
+ * steal() also returns null when it lost the race for the item to another thread.
+ *
+ * @author Adam Filkor
+ */
+public class WorkStealingDeque<Item> {
+
+    // initial capacity of underlying resizing array, power of two
+    private static final int INIT_CAPACITY = 32;
+
+    private final AtomicLong top = new AtomicLong(); // next item to steal
+    private volatile long bottom = 0; // next free slot of the owner
+    private volatile Object[] q = new Object[INIT_CAPACITY];
+
+    // is the deque empty? just a snapshot when other threads are working on it
+    public boolean isEmpty() {
+        return bottom <= top.get();
+    }
+
+    // number of items on the deque, a snapshot as well
+    public int size() {
+        long size = bottom - top.get();
+        return size < 0 ? 0 : (int) size;
+    }
+
+    // add the item to the back, owner thread only
+    public void push(Item item) {
+        if (item == null) throw new IllegalArgumentException("null argument push");
+        long b = bottom;
+        long t = top.get();
+        Object[] a = q;
+        if (b - t >= a.length) {
+            a = resize(a, b, t);
+        }
+        a[(int) b & (a.length - 1)] = item;
+        bottom = b + 1; // publishes the item to the thieves
+    }
+
+    // remove and return the item from the back, or null if it's empty, owner thread only
+    public Item pop() {
+        long b = bottom - 1;
+        Object[] a = q;
+        bottom = b; // claim the slot before looking at top
+        long t = top.get();
+        if (t > b) {
+            bottom = b + 1; // it was empty
+            return null;
+        }
+        int i = (int) b & (a.length - 1);
+        Item item = (Item) a[i];
+        if (t == b) {
+            // last item, race the thieves for it
+            if (!top.compareAndSet(t, t + 1)) item = null;
+            else a[i] = null; // ours, and only the owner writes the slots
+            bottom = b + 1;
+        }
+        else {
+            a[i] = null; // no thief can reach it, avoid loitering
+        }
+        return item;
+    }
+
+    // remove and return the item from the front, or null if it's empty or we lost the race
+    public Item steal() {
+        long t = top.get();
+        long b = bottom;
+        if (t >= b) return null;
+        Object[] a = q;
+        Item item = (Item) a[(int) t & (a.length - 1)];
+        if (!top.compareAndSet(t, t + 1)) return null;
+        return item;
+    }
+
+    // double the array, copying the items between top and bottom
+    private Object[] resize(Object[] a, long b, long t) {
+        Object[] copy = new Object[2 * a.length];
+        for (long i = t; i < b; i++) {
+            copy[(int) i & (copy.length - 1)] = a[(int) i & (a.length - 1)];
+        }
+        q = copy;
+        return copy;
+    }
+
+    // unit testing: the owner pushes and pops, the thieves steal, every item is taken once
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int numThieves = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>();
+        AtomicLong stolen = new AtomicLong();
+        AtomicLong stolenSum = new AtomicLong();
+        Thread[] thieves = new Thread[numThieves];
+        for (int i = 0; i < numThieves; i++) {
+            thieves[i] = new Thread(() -> {
+                long count = 0, sum = 0;
+                while (!Thread.currentThread().isInterrupted() || !deque.isEmpty()) {
+                    Integer item = deque.steal();
+                    if (item != null) {
+                        count++;
+                        sum += item;
+                    }
+                }
+                stolen.addAndGet(count);
+                stolenSum.addAndGet(sum);
+            });
+            thieves[i].start();
+        }
+
+        long popped = 0, poppedSum = 0;
+        for (int i = 1; i <= n; i++) {
+            deque.push(i);
+            if (i % 3 == 0) {
+                Integer item = deque.pop();
+                if (item != null) {
+                    popped++;
+                    poppedSum += item;
+                }
+            }
+        }
+        for (Thread thief : thieves) {
+            thief.interrupt();
+        }
+        for (Thread thief : thieves) {
+            thief.join();
+        }
+
+        StdOut.println("popped: " + popped + ", stolen: " + stolen.get());
+        StdOut.println("all taken once: " + (popped + stolen.get() == n
+                && poppedSum + stolenSum.get() == (long) n * (n + 1) / 2));
+    }
+}
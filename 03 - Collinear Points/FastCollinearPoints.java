@@ -1,13 +1,31 @@
 import edu.princeton.cs.algs4.In;
-import edu.princeton.cs.algs4.Stack;
 import edu.princeton.cs.algs4.StdDraw;
 import edu.princeton.cs.algs4.StdOut;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Given a set of n distinct points in the plane, find every (maximal) line segment
  * that connects a subset of 4 or more of the points.
+ * <p>
+ * The points are copied into a PointArray, coordinates in int arrays sorted by natural
+ * order. Every origin computes the slope to the other points once, as a long key, and
+ * sorts the long[] keys with an int[] of point indices alongside: no Comparator call
+ * and no division per compare, no Point to dereference. By default the key is the
+ * double slope (see Point.slopeTo()) with its order kept. In exact mode it's the exact
+ * slope key (see Point.slopeKeyTo()), so points are collinear only if they really are.
+ * A key packs the reduced dx and dy into 32 bits each, so exact mode needs every two
+ * points to differ by less than 2^31 in both coordinates (any points in
+ * [-2^30, 2^30) qualify), it throws IllegalArgumentException otherwise.
+ * The default mode takes any int coordinates.
+ * <p>
+ * A segment is added only by the origin which is its smallest point, in both modes,
+ * so every maximal segment is added exactly once without remembering the ones we've
+ * seen. The origins are independent then, so the parallel mode splits them between
+ * fork/join workers, each with its own key and index buffers, and concatenates
+ * their segments in origin order, no locking.
  *
  * @author Adam Filkor
  */
@@ -21,118 +39,152 @@ public class FastCollinearPoints {
 
 
     public FastCollinearPoints(Point[] pts) {
-        if (pts == null) throw new IllegalArgumentException("points are null");
-        Point[] points = new Point[pts.length];
-        for (int i = 0; i < points.length; i++) {
-            points[i] = pts[i];
-        }
+        this(pts, false);
+    }
 
-        /*
+    // with exactSlopes, compare the exact slope keys instead of the double slopes
+    public FastCollinearPoints(Point[] pts, boolean exactSlopes) {
+        this(pts, exactSlopes, 1);
+    }
 
-        IllegalArgumentException if the argument to the constructor is null,
-        if any point in the array is null, or if the argument to the constructor
-        contains a repeated point.
+    // the origins split between the given number of fork/join workers
+    public FastCollinearPoints(Point[] pts, int threads) {
+        this(pts, false, threads);
+    }
+
+    // exact or double slopes, and the origins split between the fork/join workers
+    public FastCollinearPoints(Point[] pts, boolean exactSlopes, int threads) {
+        if (threads <= 0) throw new IllegalArgumentException("threads is less or equal to 0");
 
+        /*
+            IllegalArgumentException if the argument to the constructor is null,
+            if any point in the array is null, or if the argument to the constructor
+            contains a repeated point. PointArray checks them while sorting the points.
         */
+        PointArray points = new PointArray(pts);
 
         lineSegments = new LineSegment[INIT_CAPACITY];
-        Point[] pointsCopy = new Point[points.length]; // create a copy, we want a copy for the original array, the original order.
-        Stack<Double> visitedSlopes = new Stack<>();
-        Stack<Point> visitedStartPoints = new Stack<>();
-        Stack<Point> visitedEndPoints = new Stack<>();
+        if (threads == 1) addAll(find(points, exactSlopes, 0, points.n));
+        else addAll(findParallel(points, exactSlopes, threads));
+    }
 
-        for (int i = 0; i < points.length; i++) {
+    /*
+        The segments of the origins from..to-1. Every origin sorts the slope keys
+        of the other points, with their indices alongside, and looks for the runs
+        of equal keys. The keys are the exact slope keys, or the double slopes
+        as ordered longs. The buffers are allocated once per call, so once per
+        worker task in the parallel mode, nothing is allocated per origin.
+    */
+    private static Segments find(PointArray points, boolean exactSlopes, int from, int to) {
+        Segments found = new Segments();
+        int n = points.n;
+        if (n < 4) return found;
+        long[] keys = new long[n - 1];
+        int[] index = new int[n - 1];
+
+        // the smallest point of a segment of 4 can't be one of the last 3
+        for (int z = from; z < Math.min(to, n - 3); z++) {
+            int m = 0;
+            for (int j = 0; j < n; j++) {
+                if (j == z) continue;
+                keys[m] = exactSlopes ? points.slopeKey(z, j) : points.slopeBits(z, j);
+                index[m++] = j;
+            }
+            KeyIndexSort.sort(keys, index, 0, m);
 
-            for (int j = i + 1; j < points.length; j++) {
-                if (i == 0 && points[j] == null || points[0] == null) throw new IllegalArgumentException("One of the points is null");
-                if (points[i].compareTo(points[j]) == 0)
-                    throw new IllegalArgumentException("Duplicate points");
+            for (int lo = 0; lo < m; ) {
+                int hi = lo + 1;
+                while (hi < m && keys[hi] == keys[lo]) hi++;
+                if (hi - lo >= 3) addFromSmallest(z, points, index, lo, hi, found);
+                lo = hi;
             }
-            pointsCopy[i] = points[i];
         }
+        return found;
+    }
+
+    // find() on a fork/join pool, about 8 tasks per worker to balance the load
+    private static Segments findParallel(PointArray points, boolean exactSlopes, int threads) {
+        int grain = Math.max(1, points.n / (8 * threads));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new OriginTask(points, exactSlopes, 0, points.n, grain));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    // the origins lo..hi-1, halved until at most grain origins are left
+    private static class OriginTask extends RecursiveTask<Segments> {
+        private static final long serialVersionUID = 1L;
+
+        private final PointArray points;
+        private final boolean exactSlopes;
+        private final int lo, hi, grain;
 
-        for (int z = 0; z < pointsCopy.length; z++) {
-
-            Point p0 = pointsCopy[z];
-            Arrays.sort(points, p0.slopeOrder());
-
-            int k = 1;
-
-            // every round we compare all other points to p0
-            for (int i = 0; i < points.length; i++) {
-
-                if (points[i] == p0)
-                    continue; // don't count if it's the same point
-
-                double slope = p0.slopeTo(points[i]);
-
-                if (i + 1 < points.length && p0.slopeTo(points[i]) == p0.slopeTo(points[i + 1])) {
-                    // checking and counting adjacent points - in the sorted  array - where slopes are equal
-                    k++;
-                }
-                else {
-                    int maxPoints = k + 1; // max points on the given line, + 1 cause the p0
-                    if (maxPoints >= 4) {
-
-                        Point[] linePoints = new Point[maxPoints];
-                        linePoints[0] = p0;
-                        for (int j = 1; j < maxPoints; j++) {
-                            linePoints[j] = points[i + j - k];
-                        }
-
-                        /*
-                            Sort the array which contains the line points, by natural order,
-                            so it's first element is always the same, given we are on the same line.
-                        */
-                        Arrays.sort(linePoints);
-
-                        // start and endpoints of the given maximal line.
-                        Point startPoint = linePoints[0];
-                        Point endPoint = linePoints[maxPoints - 1];
-
-                        boolean slopeVisited = false;
-                        boolean endPointVisited = false;
-                        boolean startPointVisited = false;
-                        for (double slp : visitedSlopes) {
-                            if (slp == slope) slopeVisited = true;
-                        }
-                        for (Point p : visitedStartPoints) {
-                            if (p == startPoint) startPointVisited = true;
-                        }
-                        for (Point p : visitedEndPoints) {
-                            if (p == endPoint) endPointVisited = true;
-                        }
-
-                        /*
-                            Cutting down on the unnecessary lines
-                            The combination of the slope, start, endpoints is a pretty unique value.
-                            Break out if we've been visited them already
-                            // TODO missing lines on rare cases, better conditions are needed
-                        */
-                        if (slopeVisited && startPointVisited && endPointVisited) {
-                            break;
-                        }
-                        if (!slopeVisited)
-                            visitedSlopes.push(slope);
-                        if (!startPointVisited)
-                            visitedStartPoints.push(linePoints[0]);
-                        if (!endPointVisited)
-                            visitedEndPoints.push(linePoints[maxPoints - 1]);
-
-                        // Resizing arrays. By multiplying the size by 2 - and copying
-                        // at those times - whenever length == size, the amortized complexity is O(n)
-                        if (numSegments == lineSegments.length)
-                            resize(2 * lineSegments.length);
-
-                        lineSegments[numSegments++] = new LineSegment(linePoints[0], linePoints[maxPoints - 1]);
-                    }
-
-                    k = 1; // reset
-                }
+        private OriginTask(PointArray points, boolean exactSlopes, int lo, int hi, int grain) {
+            this.points = points;
+            this.exactSlopes = exactSlopes;
+            this.lo = lo;
+            this.hi = hi;
+            this.grain = grain;
+        }
+
+        protected Segments compute() {
+            if (hi - lo <= grain) return find(points, exactSlopes, lo, hi);
+            int mid = (lo + hi) >>> 1;
+            OriginTask left = new OriginTask(points, exactSlopes, lo, mid, grain);
+            left.fork();
+            Segments right = new OriginTask(points, exactSlopes, mid, hi, grain).compute();
+            Segments found = left.join();
+            found.addAll(right); // origin order, the same result as the sequential one
+            return found;
+        }
+    }
+
+    // resizing array of segments, the result of a worker task
+    private static class Segments {
+        private LineSegment[] a = new LineSegment[INIT_CAPACITY];
+        private int n = 0;
+
+        private void add(LineSegment segment) {
+            if (n == a.length) a = Arrays.copyOf(a, 2 * n);
+            a[n++] = segment;
+        }
+
+        private void addAll(Segments that) {
+            for (int i = 0; i < that.n; i++) {
+                add(that.a[i]);
             }
         }
     }
 
+    // add the segments found by the workers
+    private void addAll(Segments found) {
+        for (int i = 0; i < found.n; i++) {
+            // Resizing arrays. By multiplying the size by 2 - and copying
+            // at those times - whenever length == size, the amortized complexity is O(n)
+            if (numSegments == lineSegments.length)
+                resize(2 * lineSegments.length);
+            lineSegments[numSegments++] = found.a[i];
+        }
+    }
+
+    /*
+        Origin z and the points index[lo..hi) are a maximal line, as all the points on it
+        have the same slope to z. Add it only if z is the smallest point of the line,
+        then every line is added by exactly one origin, no need to remember what we've seen.
+        The points are sorted, so that's comparing indices, and the end point is the largest index.
+    */
+    private static void addFromSmallest(int z, PointArray points, int[] index, int lo, int hi, Segments found) {
+        int end = z;
+        for (int k = lo; k < hi; k++) {
+            if (index[k] < z) return;
+            if (index[k] > end) end = index[k];
+        }
+        found.add(new LineSegment(points.points[z], points.points[end]));
+    }
+
     public int numberOfSegments() {
         return numSegments;
     }
@@ -159,6 +211,11 @@ public class FastCollinearPoints {
     }
 
     public static void main(String[] args) {
+        // file [exact] [threads]
+        boolean exactSlopes = args.length > 1 && args[1].equals("exact");
+        int threadsArg = exactSlopes ? 2 : 1;
+        int threads = args.length > threadsArg ? Integer.parseInt(args[threadsArg]) : 1;
+
         // read the n points from a file
         In in = new In(args[0]);
         int n = in.readInt();
@@ -178,7 +235,7 @@ public class FastCollinearPoints {
         }
         StdDraw.show();
 
-        FastCollinearPoints collinear = new FastCollinearPoints(points);
+        FastCollinearPoints collinear = new FastCollinearPoints(points, exactSlopes, threads);
         int segments = collinear.numberOfSegments();
 
         for (LineSegment segment : collinear.segments()) {
@@ -0,0 +1,110 @@
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdDraw;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+
+/**
+ * Same as FastCollinearPoints, but in O(n^2) expected time instead of O(n^2 log n):
+ * the points are grouped by their slope to the origin in a hash table,
+ * instead of sorting them by it.
+ * <p>
+ * The points are sorted by natural order once into a PointArray, then for every
+ * origin p the other points are put into an open addressing hash table from the
+ * exact slope key (see Point.slopeKeyTo()) to a bucket: the number of points with
+ * that slope, the largest one, and whether there is one smaller than p. A bucket of
+ * 3 or more points is a maximal segment, added if p is its smallest point. The table
+ * is a SlopeTable, allocated once and cleared in O(1) for every origin.
+ * <p>
+ * Like the exact mode of FastCollinearPoints, every two points have to differ by less
+ * than 2^31 in both coordinates, so that their slope key fits in a long, otherwise
+ * it throws IllegalArgumentException.
+ *
+ * @author Adam Filkor
+ */
+
+public class HashCollinearPoints {
+
+    private static final int INIT_CAPACITY = 8; // line segments array init capacity
+
+    private int numSegments = 0;
+    private LineSegment[] lineSegments;
+
+    public HashCollinearPoints(Point[] pts) {
+        // natural order, null and duplicate points rejected, and index order is point order
+        PointArray points = new PointArray(pts);
+        int n = points.n;
+
+        lineSegments = new LineSegment[INIT_CAPACITY];
+        if (n < 4) return;
+
+        // the count of a slope is negative if a point with it is smaller than the origin
+        SlopeTable table = new SlopeTable(n - 1);
+        int[] largest = new int[table.capacity()]; // index of the largest point with the slope
+
+        // the smallest point of a segment of 4 can't be one of the last 3
+        for (int z = 0; z < n - 3; z++) {
+            table.clear();
+            for (int j = 0; j < n; j++) {
+                if (j == z) continue;
+                int slot = table.add(points.slopeKey(z, j));
+                if (j < z) table.setCount(slot, Integer.MIN_VALUE); // stays negative
+                else largest[slot] = j; // j is increasing
+            }
+
+            for (int i = 0; i < table.size(); i++) {
+                int slot = table.slotAt(i);
+                if (table.count(slot) >= 3) {
+                    if (numSegments == lineSegments.length)
+                        resize(2 * lineSegments.length);
+                    lineSegments[numSegments++] = new LineSegment(points.points[z], points.points[largest[slot]]);
+                }
+            }
+        }
+    }
+
+    public int numberOfSegments() {
+        return numSegments;
+    }
+
+    public LineSegment[] segments() {
+        return Arrays.copyOf(lineSegments, numSegments);
+    }
+
+    // resize the underlying array holding the elements
+    private void resize(int capacity) {
+        assert capacity >= numSegments;
+        lineSegments = Arrays.copyOf(lineSegments, capacity);
+    }
+
+    public static void main(String[] args) {
+        // read the n points from a file
+        In in = new In(args[0]);
+        int n = in.readInt();
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            points[i] = new Point(x, y);
+        }
+
+        // draw the points
+        StdDraw.enableDoubleBuffering();
+        StdDraw.setXscale(0, 32768);
+        StdDraw.setYscale(0, 32768);
+        for (Point p : points) {
+            p.draw();
+        }
+        StdDraw.show();
+
+        HashCollinearPoints collinear = new HashCollinearPoints(points);
+        int segments = collinear.numberOfSegments();
+
+        for (LineSegment segment : collinear.segments()) {
+            StdOut.println(segment);
+            segment.draw();
+        }
+        StdOut.println("Line segments: " + segments);
+        StdDraw.show();
+    }
+}
@@ -0,0 +1,193 @@
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The (maximal) line segments of 4 or more points, like FastCollinearPoints,
+ * but the points are inserted one at a time, and the segments are kept up to date.
+ * <p>
+ * insert(p) groups the points inserted so far by their exact slope to p (see
+ * Point.slopeKeyTo()), in a SlopeTable like HashCollinearPoints. A group of 3 or more
+ * points is exactly the set of points on a line through p, so p creates that segment,
+ * or extends it if the group had 4 or more.
+ * The segments are in a map from the canonical key of their line (reduced direction
+ * and offset) to their end points, so an extended one is updated in place.
+ * That's O(n) expected time per insert, and O(n + segments) memory,
+ * the lines of 2 or 3 points are not stored.
+ * <p>
+ * Like HashCollinearPoints, a point has to differ by less than 2^31 in both coordinates
+ * from every point inserted before, otherwise insert() throws IllegalArgumentException.
+ *
+ * @author Adam Filkor
+ */
+
+public class IncrementalCollinearPoints {
+
+    private static final int INIT_CAPACITY = 8; // points array init capacity
+
+    private int n = 0;
+    private int[] xs = new int[INIT_CAPACITY];
+    private int[] ys = new int[INIT_CAPACITY];
+    private Point[] points = new Point[INIT_CAPACITY];
+
+    private final HashMap<LineKey, Line> lines = new HashMap<>();
+    private Line[] segments = new Line[INIT_CAPACITY]; // the lines, in the order of creation
+    private int numSegments = 0;
+
+    // the slopes of an insert, with the smallest and largest point of every slope
+    private SlopeTable table = new SlopeTable(INIT_CAPACITY);
+    private int[] smallest = new int[table.capacity()];
+    private int[] largest = new int[table.capacity()];
+
+    // a line of 4 or more points
+    private static class Line {
+        private Point smallest;
+        private Point largest;
+    }
+
+    // a line is the reduced direction (dx, dy), as a slope key, and dy * x - dx * y of its points
+    private static final class LineKey {
+        private final long slope;
+        private final long offset;
+
+        private LineKey(long slope, long offset) {
+            this.slope = slope;
+            this.offset = offset;
+        }
+
+        public boolean equals(Object other) {
+            if (!(other instanceof LineKey)) return false;
+            LineKey that = (LineKey) other;
+            return slope == that.slope && offset == that.offset;
+        }
+
+        public int hashCode() {
+            return Long.hashCode(slope) * 31 + Long.hashCode(offset);
+        }
+    }
+
+    // number of points inserted
+    public int size() {
+        return n;
+    }
+
+    public int numberOfSegments() {
+        return numSegments;
+    }
+
+    // the current maximal segments, in the order they were created
+    public LineSegment[] segments() {
+        LineSegment[] ls = new LineSegment[numSegments];
+        for (int i = 0; i < numSegments; i++) {
+            ls[i] = new LineSegment(segments[i].smallest, segments[i].largest);
+        }
+        return ls;
+    }
+
+    /*
+        Add the point, and return the segments it created or extended (as they are now).
+        IllegalArgumentException if it's null, equal to a point inserted before, or too far
+        from one for an exact slope, then the index is not changed.
+    */
+    public LineSegment[] insert(Point p) {
+        if (p == null) throw new IllegalArgumentException("point is null");
+        int x = p.x();
+        int y = p.y();
+
+        // check everything first, nothing is changed when throwing
+        for (int j = 0; j < n; j++) {
+            if (xs[j] == x && ys[j] == y) throw new IllegalArgumentException("Duplicate points");
+            if (Math.abs((long) xs[j] - x) > Integer.MAX_VALUE || Math.abs((long) ys[j] - y) > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("points are too far apart for an exact slope");
+        }
+
+        table.clear();
+        for (int j = 0; j < n; j++) {
+            int slot = table.add(Point.slopeKey(x, y, xs[j], ys[j]));
+            if (table.count(slot) == 1) {
+                smallest[slot] = j;
+                largest[slot] = j;
+            }
+            else {
+                if (points[j].compareTo(points[smallest[slot]]) < 0) smallest[slot] = j;
+                if (points[j].compareTo(points[largest[slot]]) > 0) largest[slot] = j;
+            }
+        }
+
+        LineSegment[] changed = new LineSegment[table.size()];
+        int numChanged = 0;
+        for (int i = 0; i < table.size(); i++) {
+            int slot = table.slotAt(i);
+            if (table.count(slot) < 3) continue;
+
+            LineKey key = lineKey(table.key(slot), x, y);
+            Line line = lines.get(key);
+            if (line == null) {
+                line = new Line();
+                lines.put(key, line);
+                if (numSegments == segments.length) segments = Arrays.copyOf(segments, 2 * numSegments);
+                segments[numSegments++] = line;
+            }
+            Point first = points[smallest[slot]];
+            Point last = points[largest[slot]];
+            line.smallest = p.compareTo(first) < 0 ? p : first;
+            line.largest = p.compareTo(last) > 0 ? p : last;
+            changed[numChanged++] = new LineSegment(line.smallest, line.largest);
+        }
+
+        add(p, x, y);
+        return Arrays.copyOf(changed, numChanged);
+    }
+
+    // append the point, and grow the arrays and the slope table if needed
+    private void add(Point p, int x, int y) {
+        if (n == points.length) {
+            int capacity = 2 * n;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            points = Arrays.copyOf(points, capacity);
+
+            // nothing in the table to rehash between two inserts
+            table = new SlopeTable(capacity);
+            smallest = new int[table.capacity()];
+            largest = new int[table.capacity()];
+        }
+        xs[n] = x;
+        ys[n] = y;
+        points[n] = p;
+        n++;
+    }
+
+    /*
+        The line through (x, y) with the direction of the slope key. The reduced |dx| and |dy|
+        are less than 2^31, so both products are less than 2^62 and dy * x - dx * y can't overflow.
+    */
+    private static LineKey lineKey(long slope, int x, int y) {
+        long dy = slope >> 32;
+        long dx = (int) slope;
+        return new LineKey(slope, dy * x - dx * y);
+    }
+
+    // unit testing: insert the points of a file one by one, print the segments as they change
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int n = in.readInt();
+        IncrementalCollinearPoints collinear = new IncrementalCollinearPoints();
+        for (int i = 0; i < n; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            Point p = new Point(x, y);
+            for (LineSegment segment : collinear.insert(p)) {
+                StdOut.println(p + ": " + segment);
+            }
+        }
+
+        StdOut.println("------");
+        for (LineSegment segment : collinear.segments()) {
+            StdOut.println(segment);
+        }
+        StdOut.println("Line segments: " + collinear.numberOfSegments());
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Sorts an array of long keys, moving an int array of indices (or any payload)
+ * along with them, so we can sort by a primitive key without boxing and without
+ * a Comparator call per compare.
+ * <p>
+ * 3-way quicksort like Quick3way of algs4, as slope keys have many equal values
+ * (that's what we are looking for), and insertion sort for the small subarrays.
+ * Instead of shuffling first, the pivot is the median of 3 (the ninther, Tukey's
+ * median of 3 medians of 3, for the large subarrays), and past a depth of
+ * 2 lg n the subarray is heapsorted, like introsort, so the worst case is
+ * O(n log n) for any input. Not stable.
+ *
+ * @author Adam Filkor
+ */
+class KeyIndexSort {
+
+    private static final int CUTOFF = 12;   // insertion sort below this size
+    private static final int NINTHER = 40;  // ninther pivot from this size
+
+    private KeyIndexSort() {
+    }
+
+    // sort keys[lo..hi) in ascending order, index[lo..hi) is permuted the same way
+    static void sort(long[] keys, int[] index, int lo, int hi) {
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(Math.max(hi - lo, 1)));
+        sort(keys, index, lo, hi - 1, depth);
+    }
+
+    // keys[lo..hi], inclusive
+    private static void sort(long[] keys, int[] index, int lo, int hi, int depth) {
+        while (hi - lo >= CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(keys, index, lo, hi);
+                return;
+            }
+            swap(keys, index, lo, pivot(keys, lo, hi));
+            long v = keys[lo];
+            int lt = lo, gt = hi, i = lo + 1;
+            while (i <= gt) {
+                if (keys[i] < v) swap(keys, index, lt++, i++);
+                else if (keys[i] > v) swap(keys, index, i, gt--);
+                else i++;
+            }
+            // recurse into the smaller part, loop on the larger one, so the stack stays O(log n)
+            if (lt - lo < hi - gt) {
+                sort(keys, index, lo, lt - 1, depth);
+                lo = gt + 1;
+            }
+            else {
+                sort(keys, index, gt + 1, hi, depth);
+                hi = lt - 1;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && keys[j] < keys[j - 1]; j--) {
+                swap(keys, index, j, j - 1);
+            }
+        }
+    }
+
+    // index of the median of 3, or of the ninther for large subarrays
+    private static int pivot(long[] keys, int lo, int hi) {
+        int mid = lo + (hi - lo) / 2;
+        if (hi - lo + 1 < NINTHER) return median3(keys, lo, mid, hi);
+        int eps = (hi - lo + 1) / 8;
+        int m1 = median3(keys, lo, lo + eps, lo + eps + eps);
+        int m2 = median3(keys, mid - eps, mid, mid + eps);
+        int m3 = median3(keys, hi - eps - eps, hi - eps, hi);
+        return median3(keys, m1, m2, m3);
+    }
+
+    private static int median3(long[] keys, int i, int j, int k) {
+        if (keys[i] < keys[j]) {
+            if (keys[j] < keys[k]) return j;
+            return keys[i] < keys[k] ? k : i;
+        }
+        if (keys[k] < keys[j]) return j;
+        return keys[k] < keys[i] ? k : i;
+    }
+
+    // heapsort of keys[lo..hi], the fallback when quicksort goes too deep
+    private static void heapSort(long[] keys, int[] index, int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int k = n / 2 - 1; k >= 0; k--) {
+            sink(keys, index, lo, k, n);
+        }
+        while (n > 1) {
+            swap(keys, index, lo, lo + --n);
+            sink(keys, index, lo, 0, n);
+        }
+    }
+
+    // max heap in keys[lo..lo+n), with the children of k at 2k+1 and 2k+2
+    private static void sink(long[] keys, int[] index, int lo, int k, int n) {
+        while (2 * k + 1 < n) {
+            int j = 2 * k + 1;
+            if (j + 1 < n && keys[lo + j] < keys[lo + j + 1]) j++;
+            if (keys[lo + k] >= keys[lo + j]) break;
+            swap(keys, index, lo + k, lo + j);
+            k = j;
+        }
+    }
+
+    private static void swap(long[] keys, int[] index, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int t = index[i];
+        index[i] = index[j];
+        index[j] = t;
+    }
+}
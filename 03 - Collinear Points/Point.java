@@ -57,11 +57,71 @@ public class Point implements Comparable<Point> {
      * @return the slope between this point and the specified point
      */
     public double slopeTo(Point that) {
-        if (that.x == this.x && that.y == this.y)
+        return slope(this.x, this.y, that.x, that.y);
+    }
+
+    // slopeTo() of the coordinates, for the points stored in a PointArray
+    static double slope(int x0, int y0, int x1, int y1) {
+        if (x1 == x0 && y1 == y0)
             return Double.NEGATIVE_INFINITY; // need it in here first
-        if (that.y == this.y) return +0.0;
-        if (that.x == this.x) return Double.POSITIVE_INFINITY;
-        return (double) (that.y - this.y) / (that.x - this.x);
+        if (y1 == y0) return +0.0;
+        if (x1 == x0) return Double.POSITIVE_INFINITY;
+        return (double) (y1 - y0) / (x1 - x0);
+    }
+
+    /**
+     * Returns the slope between this point and the specified point as an exact key:
+     * the reduced fraction dy / dx, with dx &gt;= 0 (and dy = 1 when it's vertical),
+     * packed into a long as dy in the high 32 bits and dx in the low 32 bits.
+     * Two points have the same key if and only if they have the same slope
+     * with this point, there is no rounding. The keys are not ordered like the slopes.
+     *
+     * @param that the other point, not equal to this point
+     * @return the slope key between this point and the specified point
+     * @throws IllegalArgumentException if a coordinate differs by 2^31 or more
+     */
+    long slopeKeyTo(Point that) {
+        return slopeKey(this.x, this.y, that.x, that.y);
+    }
+
+    // slopeKeyTo() of the coordinates, for the points stored in a PointArray
+    static long slopeKey(int x0, int y0, int x1, int y1) {
+        long dx = (long) x1 - x0;
+        long dy = (long) y1 - y0;
+        if (Math.abs(dx) > Integer.MAX_VALUE || Math.abs(dy) > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("points are too far apart for an exact slope");
+        return slopeKey((int) dx, (int) dy);
+    }
+
+    // exact slope key of the direction (dx, dy), see slopeKeyTo()
+    static long slopeKey(int dx, int dy) {
+        if (dx == 0) return 1L << 32; // vertical
+        if (dy == 0) return 1L;       // horizontal
+        if (dx < 0) {
+            dx = -dx;
+            dy = -dy;
+        }
+        int g = gcd(dx, Math.abs(dy));
+        return ((long) (dy / g) << 32) | (dx / g);
+    }
+
+    // Euclid, for positive a and b
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    // the coordinates, for copying them into a PointArray
+    int x() {
+        return x;
+    }
+
+    int y() {
+        return y;
     }
 
     /**
@@ -112,8 +172,11 @@ public class Point implements Comparable<Point> {
 
             Point p0 = Point.this; // to access invoking point from within inner class. awkward notation
 
-            if (p0.slopeTo(p1) < p0.slopeTo(p2)) return -1;
-            else if (p0.slopeTo(p1) > p0.slopeTo(p2)) return +1;
+            // one division per point, not two
+            double slope1 = p0.slopeTo(p1);
+            double slope2 = p0.slopeTo(p2);
+            if (slope1 < slope2) return -1;
+            else if (slope1 > slope2) return +1;
             else return 0;
         }
     }
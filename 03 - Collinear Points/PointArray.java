@@ -0,0 +1,60 @@
+/**
+ * A set of distinct points stored as a struct of arrays: the coordinates of the
+ * i-th point are xs[i] and ys[i], sorted by the natural order of Point (y, then x).
+ * <p>
+ * The collinear searches scan the coordinates of every point for every origin.
+ * Two int arrays are read sequentially, instead of following a reference to
+ * a Point object (and its header) per point and per compare. The Point objects
+ * are kept only as the views handed out in the LineSegments.
+ * Sorting is a KeyIndexSort on a long key packing y and x, so the duplicate points
+ * end up next to each other and are found in O(n log n) instead of comparing every pair.
+ * As the points are sorted, point i is smaller than point j if and only if i &lt; j.
+ *
+ * @author Adam Filkor
+ */
+class PointArray {
+
+    final int n;
+    final int[] xs;
+    final int[] ys;
+    final Point[] points; // points[i] is the Point at (xs[i], ys[i])
+
+    // copy and sort the points, IllegalArgumentException on null or repeated points
+    PointArray(Point[] pts) {
+        if (pts == null) throw new IllegalArgumentException("points are null");
+        n = pts.length;
+        long[] keys = new long[n];
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (pts[i] == null) throw new IllegalArgumentException("One of the points is null");
+            keys[i] = ((long) pts[i].y() << 32) | ((pts[i].x() ^ Integer.MIN_VALUE) & 0xffffffffL);
+            index[i] = i;
+        }
+        KeyIndexSort.sort(keys, index, 0, n);
+
+        xs = new int[n];
+        ys = new int[n];
+        points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && keys[i] == keys[i - 1]) throw new IllegalArgumentException("Duplicate points");
+            points[i] = pts[index[i]];
+            xs[i] = points[i].x();
+            ys[i] = points[i].y();
+        }
+    }
+
+    // exact slope key from point i to point j, see Point.slopeKeyTo()
+    long slopeKey(int i, int j) {
+        return Point.slopeKey(xs[i], ys[i], xs[j], ys[j]);
+    }
+
+    /*
+        Slope from point i to point j, see Point.slopeTo(), as a long with the same order.
+        The bits of a non-negative double are ordered like the double, for a negative one
+        flipping all but the sign bit reverses their order. There is no -0.0 or NaN here.
+    */
+    long slopeBits(int i, int j) {
+        long bits = Double.doubleToRawLongBits(Point.slope(xs[i], ys[i], xs[j], ys[j]));
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Open addressing hash table from slope keys (see Point.slopeKeyTo()) to the number
+ * of points with that slope, for grouping the points by their slope to an origin.
+ * <p>
+ * Linear probing over parallel arrays, at most half full. The table is reused for
+ * every origin: clear() starts a new generation, and a slot is in use only if its
+ * stamp is the current generation, so nothing is cleared. The slots in use are
+ * listed in the order of their first key, so the groups can be walked in O(groups).
+ * Callers keep more per group data in their own arrays of capacity() slots.
+ *
+ * @author Adam Filkor
+ */
+class SlopeTable {
+
+    private final long[] keys;
+    private final int[] stamps; // generation of the slot, if it's in use
+    private final int[] counts;
+    private final int[] used;   // the slots in use, in the order of their first key
+    private final int mask;
+    private int stamp = 0;
+    private int numUsed = 0;
+
+    // a table for at most maxKeys keys per generation
+    SlopeTable(int maxKeys) {
+        int capacity = Integer.highestOneBit(Math.max(4 * maxKeys - 1, 1)); // at least 2 * maxKeys
+        keys = new long[capacity];
+        stamps = new int[capacity];
+        counts = new int[capacity];
+        used = new int[maxKeys];
+        mask = capacity - 1;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    // forget every key, in O(1)
+    void clear() {
+        stamp++;
+        numUsed = 0;
+    }
+
+    // count one more point with the key, returns its slot, the count is 1 for a new slot
+    int add(long key) {
+        int i = hash(key) & mask;
+        while (stamps[i] == stamp && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (stamps[i] != stamp) {
+            stamps[i] = stamp;
+            keys[i] = key;
+            counts[i] = 0;
+            used[numUsed++] = i;
+        }
+        counts[i]++;
+        return i;
+    }
+
+    long key(int slot) {
+        return keys[slot];
+    }
+
+    int count(int slot) {
+        return counts[slot];
+    }
+
+    void setCount(int slot, int count) {
+        counts[slot] = count;
+    }
+
+    // number of slots in use
+    int size() {
+        return numUsed;
+    }
+
+    // the i-th slot in use
+    int slotAt(int i) {
+        return used[i];
+    }
+
+    // murmur3 64 bit finalizer, the low bits of the keys alone are far from random
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}